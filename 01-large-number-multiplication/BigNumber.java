@@ -0,0 +1,332 @@
+import java.util.ArrayList;
+import java.util.Arrays; // for copyOfRange()
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * An immutable non-negative integer in a given base, wrapped around the digit
+ * arrays of GradeSchoolMultiplication_Solution.
+ *
+ * Code that passes bare int[] arrays around has to trim leading zeros, treat
+ * the empty array as 0, and copy arrays defensively, over and over. A BigNumber
+ * does that once: it is normalized when it is made, and the array it wraps is
+ * never changed afterwards, so it can be shared freely.
+ *
+ * A BigNumber is a view of part of an array: digits[offset] to
+ * digits[offset + length - 1], most significant first, without leading zeros.
+ * The number 0 has length 0. Taking the high or the low digits of a number, or
+ * dropping its leading zeros, only moves offset and length; no digits are
+ * copied. An array is only copied when it goes to a multiplication engine and
+ * the view does not cover all of it. Its hash code is computed on first use and
+ * then kept.
+ *
+ * Products can also be deferred: a.times(b).times(c) collects the factors, and
+ * evaluate() multiplies them in the cheapest order. With multiplication that
+ * costs more than linear time, that order always multiplies the two shortest
+ * factors first (like building a Huffman code), so that the long ones meet as
+ * late as possible. For a 100,000-digit a and 10-digit b and c, (a * b) * c
+ * makes two long products, a * (b * c) only one.
+ */
+public final class BigNumber implements Comparable<BigNumber> {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Digits; never modified after construction, and possibly shared */
+    private final int[] digits;
+
+    /** Position of the most significant digit */
+    private final int offset;
+
+    /** Number of digits, without leading zeros; 0 for the number 0 */
+    private final int length;
+
+    private final int base;
+
+    /** Cached hash code; 0 until computed */
+    private int hash;
+
+    /** Wraps a view of an array; the caller has removed the leading zeros */
+    private BigNumber(final int[] digits, final int offset, final int length, final int base) {
+        this.digits = digits;
+        this.offset = offset;
+        this.length = length;
+        this.base = base;
+    } // private constructor
+
+    /**
+     * Makes a number from digits. The array is copied, so the caller may go on
+     * using it.
+     *
+     * @param digits single digits, most significant first; leading zeros are
+     *               allowed, and the empty array is 0
+     * @param base   the number base of the system
+     * @return the number
+     */
+    public static BigNumber of(final int[] digits, final int base) {
+        return wrap(digits.clone(), base);
+    } // method of
+
+    public static BigNumber of(final int[] digits) {
+        return of(digits, DEFAULT_BASE);
+    } // method of
+
+    /**
+     * Makes a number from decimal text.
+     *
+     * @param text decimal digits, most significant first
+     * @param base base of the digits of the number
+     * @return the number
+     */
+    public static BigNumber parse(final CharSequence text, final int base) {
+        int[] digits = (base == 10) ? DecimalParser.parseDigits(text) : RadixConversion.fromDecimalString(text, base);
+        return wrap(digits, base);
+    } // method parse
+
+    /**
+     * Wraps an array that nobody else will change, such as a fresh result of a
+     * multiplication engine, skipping its leading zeros without copying.
+     */
+    static BigNumber wrap(final int[] digits, final int base) {
+        int start = 0;
+        while (start < digits.length && digits[start] == 0) {
+            start++;
+        }
+        return new BigNumber(digits, start, digits.length - start, base);
+    } // method wrap
+
+    /** @return the number base of the digits */
+    public int base() {
+        return this.base;
+    } // method base
+
+    /** @return the number of digits, without leading zeros; 0 for the number 0 */
+    public int length() {
+        return this.length;
+    } // method length
+
+    public boolean isZero() {
+        return this.length == 0;
+    } // method isZero
+
+    /**
+     * @param index position counted from the most significant digit, 0 to
+     *              length() - 1
+     * @return the digit at that position
+     */
+    public int digit(final int index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("Digit " + index + " of " + this.length);
+        }
+        return this.digits[this.offset + index];
+    } // method digit
+
+    /**
+     * @return a new array with the digits, in the form
+     *         GradeSchoolMultiplication_Solution.multiply returns: no leading
+     *         zeros, and [0] for the number 0
+     */
+    public int[] toDigits() {
+        return (this.length == 0) ? new int[1] : Arrays.copyOfRange(this.digits, this.offset, this.offset + this.length);
+    } // method toDigits
+
+    /**
+     * The number made of the most significant digits, i.e., this number divided by
+     * base^(length() - count), rounded down. No digits are copied.
+     *
+     * @param count how many digits to keep; at most length()
+     */
+    public BigNumber highDigits(final int count) {
+        checkCount(count);
+        return new BigNumber(this.digits, this.offset, count, this.base);
+    } // method highDigits
+
+    /**
+     * The number made of the least significant digits, i.e., this number modulo
+     * base^count. No digits are copied.
+     *
+     * @param count how many digits to keep; at most length()
+     */
+    public BigNumber lowDigits(final int count) {
+        checkCount(count);
+        int start = this.offset + this.length - count;
+        int end = this.offset + this.length;
+        while (start < end && this.digits[start] == 0) {
+            start++;
+        }
+        return new BigNumber(this.digits, start, end - start, this.base);
+    } // method lowDigits
+
+    /**
+     * Multiplies right away, with the engine that MultiplicationEngine.fastest
+     * picks for the sizes.
+     */
+    public BigNumber multiply(final BigNumber other) {
+        checkBase(other);
+        if (this.length == 0 || other.length == 0) {
+            return wrap(new int[0], this.base);
+        }
+        return wrap(GradeSchoolMultiplication_Solution.multiply(array(), other.array(), this.base), this.base);
+    } // method multiply
+
+    public BigNumber square() {
+        if (this.length == 0) {
+            return this;
+        }
+        return wrap(GradeSchoolMultiplication_Solution.square(array(), this.base,
+                MultiplicationEngine.fastest(this.length, this.length, this.base)), this.base);
+    } // method square
+
+    public BigNumber pow(final long exponent) {
+        return wrap(Exponentiation.pow(array(), exponent, this.base), this.base);
+    } // method pow
+
+    public BigNumber add(final BigNumber other) {
+        checkBase(other);
+        return wrap(DigitArithmetic.add(array(), other.array(), this.base), this.base);
+    } // method add
+
+    /**
+     * Starts a deferred product; nothing is multiplied until evaluate().
+     *
+     * @param other the second factor
+     * @return the product of this number and other, not yet evaluated
+     */
+    public Product times(final BigNumber other) {
+        return new Product(Collections.singletonList(this)).times(other);
+    } // method times
+
+    /**
+     * A product of several numbers that is evaluated only on request, in the
+     * order that makes it cheapest. Immutable, like BigNumber.
+     */
+    public static final class Product {
+
+        private final List<BigNumber> factors;
+
+        private Product(final List<BigNumber> factors) {
+            this.factors = factors;
+        } // private constructor
+
+        /** @return this product times one more factor, not yet evaluated */
+        public Product times(final BigNumber factor) {
+            this.factors.get(0).checkBase(factor);
+            List<BigNumber> more = new ArrayList<>(this.factors);
+            more.add(factor);
+            return new Product(Collections.unmodifiableList(more));
+        } // method times
+
+        /**
+         * Multiplies the factors, always the two shortest ones available. A zero
+         * factor ends the work right away.
+         *
+         * @return the product
+         */
+        public BigNumber evaluate() {
+            PriorityQueue<BigNumber> queue = new PriorityQueue<>(this.factors.size(),
+                    (a, b) -> Integer.compare(a.length, b.length));
+            for (BigNumber factor : this.factors) {
+                if (factor.isZero()) {
+                    return factor;
+                }
+                queue.add(factor);
+            }
+            while (queue.size() > 1) {
+                queue.add(queue.poll().multiply(queue.poll()));
+            }
+            return queue.poll();
+        } // method evaluate
+
+        /** @return the number of factors */
+        public int size() {
+            return this.factors.size();
+        } // method size
+    } // class Product
+
+    @Override
+    public int compareTo(final BigNumber other) {
+        checkBase(other);
+        if (this.length != other.length) {
+            return (this.length > other.length) ? 1 : -1;
+        }
+        for (int i = 0; i < this.length; i++) {
+            int a = this.digits[this.offset + i];
+            int b = other.digits[other.offset + i];
+            if (a != b) {
+                return (a > b) ? 1 : -1;
+            }
+        }
+        return 0;
+    } // method compareTo
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof BigNumber)) {
+            return false;
+        }
+        BigNumber other = (BigNumber) object;
+        return this.base == other.base && this.length == other.length && hashCode() == other.hashCode()
+                && compareTo(other) == 0;
+    } // method equals
+
+    @Override
+    public int hashCode() {
+        int h = this.hash;
+        if (h == 0) {
+            h = this.base;
+            for (int i = this.offset; i < this.offset + this.length; i++) {
+                h = 31 * h + this.digits[i];
+            }
+            // Racing threads compute the same value, so no locking is needed
+            this.hash = h;
+        }
+        return h;
+    } // method hashCode
+
+    /** @return the number as decimal text */
+    @Override
+    public String toString() {
+        if (this.base == 10) {
+            StringBuilder text = new StringBuilder(Math.max(1, this.length));
+            for (int digit : toDigits()) {
+                text.append((char) ('0' + digit));
+            }
+            return text.toString();
+        }
+        return RadixConversion.toDecimalString(toDigits(), this.base);
+    } // method toString
+
+    /**
+     * The digits as an array for the engines, which only read it: the wrapped
+     * array itself when the view covers all of it, a copy of the view otherwise.
+     */
+    private int[] array() {
+        if (this.offset == 0 && this.length == this.digits.length) {
+            return this.digits;
+        }
+        return Arrays.copyOfRange(this.digits, this.offset, this.offset + this.length);
+    } // method array
+
+    private void checkBase(final BigNumber other) {
+        if (this.base != other.base) {
+            throw new IllegalArgumentException("Cannot combine numbers in bases " + this.base + " and "
+                    + other.base);
+        }
+    } // method checkBase
+
+    private void checkCount(final int count) {
+        if (count < 0 || count > this.length) {
+            throw new IndexOutOfBoundsException(count + " digits of " + this.length);
+        }
+    } // method checkCount
+
+    public static void main(String[] args) {
+        BigNumber a = BigNumber.parse("1234", 10);
+        BigNumber b = BigNumber.parse("5678", 10);
+        BigNumber c = BigNumber.parse("0042", 10);
+        System.out.println(a.times(b).times(c).evaluate());
+    } // method main
+} // class BigNumber
@@ -0,0 +1,307 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays; // for copyOf()
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+
+/**
+ * Decimal digits of the constants e and pi, computed by binary splitting. This
+ * is a heavy workload for the whole multiplication stack: the product tree of
+ * the series, the large multiplications near its root, the division at the end
+ * and, for pi, a square root.
+ *
+ * Both constants are sums of a series whose terms are ratios of small
+ * integers,
+ *
+ * S = a(0) + a(1) p(1)/q(1) + a(2) p(1)p(2)/(q(1)q(2)) + ...
+ *
+ * Adding the terms one by one would need a long division per term. Binary
+ * splitting keeps a range of terms [from, to) as three integers instead,
+ *
+ * P = p(from) ... p(to-1)
+ * Q = q(from) ... q(to-1)
+ * T such that the terms of the range add up to T / Q (times the p/q of the
+ * terms before the range)
+ *
+ * and merges two neighbouring ranges with four products,
+ *
+ * P = Pleft Pright, Q = Qleft Qright, T = Tleft Qright + Pleft Tright
+ *
+ * This is a product tree with a different kind of node, and it runs on
+ * ProductTree.reduce: splitting the range in halves keeps the operands of every
+ * product balanced, so the fast engines do most of the work near the root, and
+ * the two halves of a range run as fork/join tasks. Near the root, where only a
+ * few tasks are left, the four products of a merge run as tasks of their own.
+ * Each product goes through GradeSchoolMultiplication_Solution.multiply, which
+ * picks the NTT at those sizes; ParallelMultiplication, Karatsuba's method on
+ * several cores, would be slower there than the four NTT products side by side.
+ * One division turns S = T / Q into digits.
+ *
+ * e = sum 1/k!, i.e., a(k) = 1, p(k) = 1, q(k) = k. It converges slowly, but
+ * its terms are tiny.
+ *
+ * pi by the Chudnovsky brothers' series, with about 14.18 digits per term:
+ *
+ * 1/pi = 12 sum (-1)^k (6k)! (13591409 + 545140134 k) / ((3k)! (k!)^3 640320^(3k+3/2))
+ *
+ * rewritten as pi = 426880 sqrt(10005) Q / T with a(k) = (-1)^k (13591409 +
+ * 545140134 k), p(k) = (6k-5)(2k-1)(6k-1) and q(k) = k^3 640320^3 / 24 (and
+ * p(0) = q(0) = 1). The sum of the series is positive, and so is T.
+ *
+ * The numbers are kept in base 10000 so that they convert to decimal text
+ * cheaply. The results are checked against CRC32 checksums of known digits.
+ */
+public class BinarySplitting {
+
+    /** Base of the digit arrays: four decimal digits per int */
+    private static final int BASE = 10_000;
+
+    /** Decimal digits in one digit of BASE */
+    private static final int DECIMAL_DIGITS_PER_LIMB = 4;
+
+    /** Extra digits of BASE carried through the division, beyond those requested */
+    private static final int GUARD_LIMBS = 2;
+
+    /** Ranges with this many terms or fewer are computed by a single thread */
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 64;
+
+    /**
+     * Operand size (in digits of BASE) from which the products of a merge run as
+     * separate tasks; smaller products cost less than scheduling them
+     */
+    private static final int PARALLEL_PRODUCT_LIMBS = 2000;
+
+    /** Number of decimal digits after the point covered by the stored checksums */
+    private static final int[] CHECKSUM_DIGITS = { 1_000, 10_000, 100_000, 1_000_000 };
+
+    /** The constants this class computes, with their series */
+    public enum Constant {
+        E(new long[] { 0xbe93489aL, 0xbf93ffe1L, 0xc4dc4e33L, 0x5b8a2016L }) {
+            @Override
+            int terms(final int digits) {
+                // The first term left out, 1/K!, must be below 10^-(digits + guard)
+                double target = digits + GUARD_LIMBS * DECIMAL_DIGITS_PER_LIMB;
+                double logFactorial = 0;
+                int k = 1;
+                while (logFactorial < target) {
+                    k++;
+                    logFactorial += Math.log10(k);
+                }
+                return k;
+            } // method terms
+
+            @Override
+            Series term(final int k) {
+                int[] one = { 1 };
+                return new Series(one, (k == 0) ? one : DigitArithmetic.fromLong(k, BASE), one, false);
+            } // method term
+
+            @Override
+            int[] scaled(final Series sum, final int limbs) {
+                return Division.divide(shiftedLeft(sum.t, limbs), sum.q, BASE);
+            } // method scaled
+        },
+        PI(new long[] { 0x10444448L, 0xb5ffcbdeL, 0x4fe1cd1dL, 0x3dad605cL }) {
+            @Override
+            int terms(final int digits) {
+                return (int) (digits / DIGITS_PER_TERM) + 2;
+            } // method terms
+
+            @Override
+            Series term(final int k) {
+                if (k == 0) {
+                    return new Series(new int[] { 1 }, new int[] { 1 }, DigitArithmetic.fromLong(A, BASE), false);
+                }
+                // Products of the factors rather than of longs: (6k-5)(2k-1)(6k-1) would
+                // overflow a long from k = 504104 on, k^3 from about 2.1 million
+                long n = k;
+                int[] p = product(product(DigitArithmetic.fromLong(6 * n - 5, BASE),
+                        DigitArithmetic.fromLong(2 * n - 1, BASE)), DigitArithmetic.fromLong(6 * n - 1, BASE));
+                int[] q = product(product(DigitArithmetic.fromLong(n * n, BASE), DigitArithmetic.fromLong(n, BASE)),
+                        DigitArithmetic.fromLong(C3_OVER_24, BASE));
+                int[] t = product(p, DigitArithmetic.fromLong(A + B * n, BASE));
+                return new Series(p, q, t, (k & 1) == 1);
+            } // method term
+
+            @Override
+            int[] scaled(final Series sum, final int limbs) {
+                // sqrt(10005) * BASE^limbs; 10005 is [1, 5] in base 10000
+                int[] root = IntegerRoots.isqrt(shiftedLeft(DigitArithmetic.fromLong(10005, BASE), 2 * limbs), BASE);
+                int[] numerator = product(product(DigitArithmetic.fromLong(426880, BASE), root), sum.q);
+                return Division.divide(numerator, sum.t, BASE);
+            } // method scaled
+        };
+
+        /** Decimal digits gained per term of the Chudnovsky series, log10(640320^3 / 1728) */
+        private static final double DIGITS_PER_TERM = 14.181647462725477;
+
+        /** The constants of the Chudnovsky series */
+        private static final long A = 13591409L;
+        private static final long B = 545140134L;
+        private static final long C3_OVER_24 = 10939058860032000L;
+
+        /** CRC32 of the result text for the numbers of digits in CHECKSUM_DIGITS */
+        private final long[] checksums;
+
+        Constant(final long[] checksums) {
+            this.checksums = checksums;
+        } // constructor
+
+        /** Number of terms needed for the given number of decimal digits, plus guard digits */
+        abstract int terms(int digits);
+
+        /** P, Q and T of the single term k */
+        abstract Series term(int k);
+
+        /** The constant times BASE^limbs, rounded down give or take a unit, from the sum of the series */
+        abstract int[] scaled(Series sum, int limbs);
+
+        /**
+         * Looks up the stored checksum of this constant.
+         *
+         * @param digits number of decimal digits after the point
+         * @return the CRC32 of compute(this, digits), or -1 if none is stored for
+         *         that many digits
+         */
+        public long expectedChecksum(final int digits) {
+            for (int i = 0; i < CHECKSUM_DIGITS.length; i++) {
+                if (CHECKSUM_DIGITS[i] == digits) {
+                    return this.checksums[i];
+                }
+            }
+            return -1;
+        } // method expectedChecksum
+    } // enum Constant
+
+    /**
+     * Computes a constant to a number of decimal digits.
+     *
+     * @param constant         the constant
+     * @param digits           number of decimal digits after the point; > 0
+     * @param pool             the pool whose threads compute the series
+     * @param sequentialCutoff ranges with this many terms or fewer are computed
+     *                         by a single thread
+     * @return the constant in decimal, e.g., "3.14159" for 5 digits of pi; the
+     *         digits are truncated, not rounded
+     */
+    public static String compute(final Constant constant, final int digits, final ForkJoinPool pool,
+            final int sequentialCutoff) {
+        if (digits <= 0) {
+            throw new IllegalArgumentException("Digits must be positive: " + digits);
+        }
+        int limbs = (digits + DECIMAL_DIGITS_PER_LIMB - 1) / DECIMAL_DIGITS_PER_LIMB + GUARD_LIMBS;
+        Series sum = ProductTree.reduce(0, constant.terms(digits), constant::term, BinarySplitting::merge, pool,
+                sequentialCutoff);
+        String text = RadixConversion.toDecimalString(constant.scaled(sum, limbs), BASE);
+        // Every constant here lies between 1 and 10, so there is one digit before the point
+        return text.charAt(0) + "." + text.substring(1, 1 + digits);
+    } // method compute
+
+    /** Computes on the JVM-wide common pool with the default cutoff */
+    public static String compute(final Constant constant, final int digits) {
+        return compute(constant, digits, ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_CUTOFF);
+    } // method compute
+
+    /**
+     * Computes the checksum that expectedChecksum stores for a result.
+     *
+     * @param value a result of compute
+     * @return CRC32 of its characters
+     */
+    public static long checksum(final String value) {
+        CRC32 crc = new CRC32();
+        crc.update(value.getBytes(StandardCharsets.US_ASCII));
+        return crc.getValue();
+    } // method checksum
+
+    /**
+     * P, Q and T of a range of terms. P and Q are positive and T has a sign; all
+     * three magnitudes have no leading zeros.
+     */
+    static final class Series {
+
+        final int[] p;
+        final int[] q;
+        final int[] t;
+        final boolean negative;
+
+        Series(final int[] p, final int[] q, final int[] t, final boolean negative) {
+            this.p = p;
+            this.q = q;
+            this.t = t;
+            this.negative = negative && t.length > 0;
+        } // constructor
+    } // class Series
+
+    /**
+     * Merges the series of two neighbouring ranges. Inside a fork/join pool with
+     * more than one thread, the four products run as separate tasks once they are
+     * large enough to pay for it.
+     */
+    private static Series merge(final Series left, final Series right) {
+        int[] p, q, leftT, rightT;
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        if (pool != null && pool.getParallelism() > 1
+                && Math.min(left.q.length, right.q.length) >= PARALLEL_PRODUCT_LIMBS) {
+            ForkJoinTask<int[]> pTask = ForkJoinTask.adapt(() -> product(left.p, right.p));
+            ForkJoinTask<int[]> qTask = ForkJoinTask.adapt(() -> product(left.q, right.q));
+            ForkJoinTask<int[]> leftTask = ForkJoinTask.adapt(() -> product(left.t, right.q));
+            ForkJoinTask<int[]> rightTask = ForkJoinTask.adapt(() -> product(left.p, right.t));
+            ForkJoinTask.invokeAll(pTask, qTask, leftTask, rightTask);
+            p = pTask.join();
+            q = qTask.join();
+            leftT = leftTask.join();
+            rightT = rightTask.join();
+        } else {
+            p = product(left.p, right.p);
+            q = product(left.q, right.q);
+            leftT = product(left.t, right.q);
+            rightT = product(left.p, right.t);
+        }
+        return combined(p, q, leftT, left.negative, rightT, right.negative);
+    } // method merge
+
+    /** The series with P = p, Q = q and T = a + b, for signed magnitudes a and b */
+    private static Series combined(final int[] p, final int[] q, final int[] a, final boolean aNegative,
+            final int[] b, final boolean bNegative) {
+        if (aNegative == bNegative) {
+            return new Series(p, q, DigitArithmetic.trimmed(DigitArithmetic.add(a, b, BASE)), aNegative);
+        }
+        // Different signs: subtract the smaller magnitude from the larger one
+        boolean aLarger = DigitArithmetic.compare(a, b) >= 0;
+        int[] difference = (aLarger ? a : b).clone();
+        DigitArithmetic.subtractShifted(difference, aLarger ? b : a, 0, BASE);
+        return new Series(p, q, DigitArithmetic.trimmed(difference), aLarger ? aNegative : bNegative);
+    } // method combined
+
+    /** Product of two trimmed numbers, trimmed */
+    private static int[] product(final int[] x, final int[] y) {
+        return DigitArithmetic.trimmed(GradeSchoolMultiplication_Solution.multiply(x, y, BASE));
+    } // method product
+
+    /** x * BASE^shift */
+    private static int[] shiftedLeft(final int[] x, final int shift) {
+        return Arrays.copyOf(x, x.length + shift);
+    } // method shiftedLeft
+
+    /**
+     * Computes a constant and reports the speed. Arguments: the constant (e or
+     * pi, default pi) and the number of digits (default 100000).
+     */
+    public static void main(String[] args) {
+        Constant constant = (args.length > 0) ? Constant.valueOf(args[0].toUpperCase()) : Constant.PI;
+        int digits = (args.length > 1) ? Integer.parseInt(args[1]) : 100_000;
+        long start = System.nanoTime();
+        String value = compute(constant, digits);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(value.substring(0, Math.min(value.length(), 52)) + "...");
+        System.out.printf("%d digits of %s in %.2f s, %.0f digits per second%n", digits, constant, seconds,
+                digits / seconds);
+        long expected = constant.expectedChecksum(digits);
+        if (expected < 0) {
+            System.out.printf("checksum %08x (none stored for %d digits)%n", checksum(value), digits);
+        } else {
+            System.out.println((checksum(value) == expected) ? "checksum ok" : "CHECKSUM MISMATCH");
+        }
+    } // method main
+} // class BinarySplitting
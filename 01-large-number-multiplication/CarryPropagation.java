@@ -0,0 +1,184 @@
+import java.util.Arrays; // for toString()
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Turns column sums into digits (carry propagation) on several processor cores.
+ *
+ * The last stage of a multiplication adds up column sums, least significant
+ * first, each column passing its carry on to the next. That is a sequential
+ * pass over the whole product, and once the products themselves are computed
+ * in parallel, it is the part that keeps all but one core waiting. The carry
+ * into a column depends on all columns below it, but only through a very small
+ * summary of each stretch of columns, and those summaries can be combined
+ * quickly: a prefix computation, like the carry-lookahead adder in hardware.
+ *
+ * The columns are cut into segments, and:
+ *
+ * 1. Every segment carries its own columns, as if no carry came in from below.
+ * That leaves one (possibly large) carry out of each segment. In parallel.
+ *
+ * 2. Every segment adds the carry out of the segment below into its lowest
+ * digits. A carry of at most 63 bits has shrunk to 0 or 1 after 64 digits, so
+ * what comes out at the top of a segment is a single bit. Each segment records
+ * whether it generates such a bit, and whether it would propagate a bit from
+ * below, because all its digits are base-1. In parallel.
+ *
+ * 3. Prefix: the carry bit into segment s+1 is generate(s) or (propagate(s) and
+ * the carry bit into s). Just two booleans per segment, so one thread does this.
+ *
+ * 4. Every segment that receives a carry bit adds it. In parallel.
+ *
+ * Steps 1 and 2 each cost one division per digit, the same as the sequential
+ * pass, so with k cores the whole thing takes about 2/k of the sequential time.
+ * Short inputs are carried sequentially.
+ */
+public class CarryPropagation {
+
+    /** Columns per segment when the caller does not say */
+    public static final int DEFAULT_SEGMENT_LENGTH = 1 << 16;
+
+    /** Shortest segment; a 63-bit carry shrinks to one bit within 64 digits */
+    private static final int MIN_SEGMENT_LENGTH = 64;
+
+    /**
+     * Carries column sums into digits, using the threads of the given pool.
+     * Digits beyond the given length are dropped, so length must be large enough
+     * for the value.
+     *
+     * @param columns       column sums, least significant first; the sum of a
+     *                      column and a carry must fit in a long
+     * @param base          base of the digits, at most Integer.MAX_VALUE
+     * @param length        number of digits to produce
+     * @param pool          the pool whose threads perform the work
+     * @param segmentLength columns per segment; at least 64
+     * @return array of length digits, least significant first, leading zeros
+     *         included
+     */
+    public static int[] propagate(final long[] columns, final long base, final int length, final ForkJoinPool pool,
+            int segmentLength) {
+        segmentLength = Math.max(segmentLength, MIN_SEGMENT_LENGTH);
+        int[] digits = new int[length];
+        int segments = (length + segmentLength - 1) / segmentLength;
+        if (segments < 2 || pool.getParallelism() < 2) {
+            carryLocally(columns, base, digits, 0, length);
+            return digits;
+        }
+        final int size = segmentLength;
+        long[] carryOut = new long[segments];
+        boolean[] generate = new boolean[segments];
+        boolean[] propagate = new boolean[segments];
+        // Step 1: every segment on its own
+        forEachSegment(pool, segments, s -> {
+            carryOut[s] = carryLocally(columns, base, digits, s * size, Math.min(length, (s + 1) * size));
+        });
+        // Step 2: take in the carry out of the segment below
+        forEachSegment(pool, segments, s -> {
+            int start = s * size;
+            int end = Math.min(length, start + size);
+            long carry = (s == 0) ? 0 : carryOut[s - 1];
+            generate[s] = ripple(digits, base, start, end, carry) > 0;
+            propagate[s] = true;
+            for (int k = start; k < end && propagate[s]; k++) {
+                propagate[s] = (digits[k] == base - 1);
+            }
+        });
+        // Step 3: prefix over the segments
+        boolean[] carryIn = new boolean[segments];
+        for (int s = 1; s < segments; s++) {
+            carryIn[s] = generate[s - 1] || (propagate[s - 1] && carryIn[s - 1]);
+        }
+        // Step 4: add the carry bits
+        forEachSegment(pool, segments, s -> {
+            if (carryIn[s]) {
+                ripple(digits, base, s * size, Math.min(length, (s + 1) * size), 1);
+            }
+        });
+        return digits;
+    } // method propagate
+
+    /** Carries using the JVM-wide common pool and the default segment length */
+    public static int[] propagate(final long[] columns, final long base, final int length) {
+        return propagate(columns, base, length, ForkJoinPool.commonPool(), DEFAULT_SEGMENT_LENGTH);
+    } // method propagate
+
+    /**
+     * Runs a step for every segment 0 .. segments-1 on the threads of a pool, and
+     * returns when all are done.
+     */
+    static void forEachSegment(final ForkJoinPool pool, final int segments, final SegmentStep step) {
+        if (segments == 1) {
+            step.run(0);
+        } else if (segments > 1) {
+            pool.invoke(new SegmentAction(step, 0, segments));
+        }
+    } // method forEachSegment
+
+    /** One step of the work on one segment */
+    interface SegmentStep {
+        void run(int segment);
+    } // interface SegmentStep
+
+    /**
+     * Carries columns start .. end-1 into digits with no carry from below.
+     *
+     * @return the carry out of the top column
+     */
+    private static long carryLocally(final long[] columns, final long base, int[] digits, final int start,
+            final int end) {
+        long carry = 0;
+        for (int k = start; k < end; k++) {
+            long value = carry + ((k < columns.length) ? columns[k] : 0);
+            digits[k] = (int) (value % base);
+            carry = value / base;
+        }
+        return carry;
+    } // method carryLocally
+
+    /**
+     * Adds a carry into digits start .. end-1, stopping as soon as it is used up.
+     *
+     * @return what is left of the carry at the top of the range
+     */
+    private static long ripple(int[] digits, final long base, final int start, final int end, long carry) {
+        for (int k = start; k < end && carry > 0; k++) {
+            long value = digits[k] + carry;
+            digits[k] = (int) (value % base);
+            carry = value / base;
+        }
+        return carry;
+    } // method ripple
+
+    /** Splits a range of segments in halves until single segments are left */
+    private static class SegmentAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SegmentStep step;
+        private final int from;
+        private final int to;
+
+        SegmentAction(final SegmentStep step, final int from, final int to) {
+            this.step = step;
+            this.from = from;
+            this.to = to;
+        } // constructor
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                this.step.run(this.from);
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new SegmentAction(this.step, this.from, middle), new SegmentAction(this.step, middle, this.to));
+        } // method compute
+    } // class SegmentAction
+
+    public static void main(String[] args) {
+        // 9*1 + 9*10 + 19*100 = 1999, carried in base 10
+        long[] columns = { 9, 9, 19 };
+        int[] digits = propagate(columns, 10, 4, ForkJoinPool.commonPool(), 1);
+        System.out.println(Arrays.toString(digits));
+    } // method main
+} // class CarryPropagation
@@ -0,0 +1,155 @@
+import java.util.Arrays; // for toString() and fill()
+
+/**
+ * Grade school multiplication with the carries taken out of the inner loop.
+ * GradeSchoolMultiplication_Solution.multiplySchoolbook keeps every position of
+ * the result a single digit at all times, so each step of its inner loop ends
+ * with a % and a / by the base. Those two divisions cost more than the
+ * multiplication itself, and because each step needs the carry of the step
+ * before, the loop cannot run on several digits at once.
+ *
+ * Here the inner loop only adds products into raw column sums held in longs
+ * (lazy carries):
+ *
+ * columns[i + j + 1] += x[i] * y[j]
+ *
+ * No step depends on another one of the same row, so a kernel can process many
+ * columns at once with SIMD instructions. The columns are worked off in blocks
+ * of COLUMN_BLOCK, from the least significant end: all products that land in a
+ * block are added up, then one pass turns the block into digits and hands its
+ * carry on to the next block. That is one % and one / per digit of the product
+ * instead of per digit multiplication, and the block of sums stays in the
+ * cache however long the operands are.
+ *
+ * Overflow bound: with digits below 2^16, a digit product is below 2^32, and a
+ * column gets at most min(x.length, y.length) of them. Both operands fit in
+ * one array together, so the shorter one has fewer than 2^30 digits, and a
+ * column sum plus the carry from the column before stays below 2^62. This
+ * makes the method correct for every base up to 2^16 = 65536, beyond the
+ * 46340 that the int arithmetic of the grade school loop allows.
+ *
+ * The SIMD kernel, VectorColumnKernel in the vector folder, uses the incubating
+ * Vector API (module jdk.incubator.vector) and is compiled and run with the
+ * option --add-modules jdk.incubator.vector. When the class or the module is
+ * missing, a plain loop does the same work.
+ */
+public class ColumnSumMultiplication {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Largest base; digit products must stay below 2^32 */
+    public static final int MAX_BASE = 1 << 16;
+
+    /** Columns summed before their carries are propagated; 8 KB of longs */
+    static final int COLUMN_BLOCK = 1024;
+
+    /** Class name of the SIMD kernel; loaded by name, so that it may be absent */
+    private static final String VECTOR_KERNEL = "VectorColumnKernel";
+
+    /** Adds the digit products of two numbers into a block of column sums */
+    interface Kernel {
+
+        /**
+         * Adds x[i] * y[j] into columns[i + j + 1 - first] for all i and j with
+         * first <= i + j + 1 < first + count. Digits are below 2^16, so that every
+         * product fits in 32 bits without sign.
+         *
+         * @param x       one operand
+         * @param y       the other operand
+         * @param columns sums of the columns first .. first+count-1
+         * @param first   position in the product of columns[0]
+         * @param count   number of columns in the block
+         */
+        void accumulate(int[] x, int[] y, long[] columns, int first, int count);
+    } // interface Kernel
+
+    /** The kernel in use: SIMD if it can be loaded, scalar otherwise */
+    private static final Kernel KERNEL = loadKernel();
+
+    /**
+     * Multiplies two integers represented as arrays using column sums. The
+     * columns are summed a block of COLUMN_BLOCK at a time, from the least
+     * significant end, and each block gets its own carry pass before the next
+     * block is summed.
+     *
+     * @param x    one of the two arrays with the integers to multiply
+     * @param y    the other array with the integer to multiply
+     * @param base the number base of the system, at most 2^16
+     * @return the product of the two numbers, in the same form as
+     *         GradeSchoolMultiplication_Solution.multiply returns it
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base) {
+        if (base > MAX_BASE) {
+            throw new IllegalArgumentException("Base " + base + " is larger than " + MAX_BASE);
+        }
+        // If one of the input arrays has 0 length, return [0] like the grade school method
+        if (x.length == 0 || y.length == 0) {
+            return new int[1];
+        }
+        int length = x.length + y.length;
+        int[] digits = new int[length];
+        long[] columns = new long[Math.min(COLUMN_BLOCK, length)];
+        long carry = 0;
+        // Blocks of columns from the least significant end; the first block may be short
+        for (int end = length; end > 0; end -= COLUMN_BLOCK) {
+            int first = Math.max(0, end - COLUMN_BLOCK);
+            int count = end - first;
+            Arrays.fill(columns, 0L);
+            KERNEL.accumulate(x, y, columns, first, count);
+            // The only carries of the block
+            for (int k = count - 1; k >= 0; k--) {
+                long sum = columns[k] + carry;
+                digits[first + k] = (int) (sum % base);
+                carry = sum / base;
+            }
+        }
+        return DigitArithmetic.toProductShape(digits, x.length, y.length);
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y) {
+        return multiply(x, y, DEFAULT_BASE);
+    } // method multiply
+
+    /** @return true if the SIMD kernel is in use */
+    public static boolean vectorized() {
+        return !(KERNEL instanceof ScalarKernel);
+    } // method vectorized
+
+    private static Kernel loadKernel() {
+        try {
+            return (Kernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled in, or the JVM runs without the jdk.incubator.vector module
+            return new ScalarKernel();
+        }
+    } // method loadKernel
+
+    /** The column sums one product at a time */
+    static class ScalarKernel implements Kernel {
+
+        @Override
+        public void accumulate(final int[] x, final int[] y, final long[] columns, final int first,
+                final int count) {
+            // Row i covers the columns i+1 .. i+y.length; only rows that reach into
+            // the block contribute
+            int firstRow = Math.max(0, first - y.length);
+            int lastRow = Math.min(x.length - 1, first + count - 2);
+            for (int i = firstRow; i <= lastRow; i++) {
+                long digit = x[i];
+                int shift = i + 1 - first;
+                int start = Math.max(0, -shift);
+                int end = Math.min(y.length, count - shift);
+                for (int j = start; j < end; j++) {
+                    columns[shift + j] += digit * y[j];
+                }
+            }
+        } // method accumulate
+    } // class ScalarKernel
+
+    public static void main(String[] args) {
+        int[] x = { 1, 2, 3, 4 };
+        int[] y = { 5, 6, 7, 8 };
+        int[] z = multiply(x, y);
+        System.out.println(Arrays.toString(z) + (vectorized() ? " (SIMD kernel)" : " (scalar kernel)"));
+    } // method main
+} // class ColumnSumMultiplication
@@ -0,0 +1,338 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays; // for toString()
+
+/**
+ * Fast parsing of long decimal text into the forms the multiplication engines
+ * use: arrays of single digits (most significant first, as
+ * GradeSchoolMultiplication_Solution.multiply expects them) or a PackedNumber
+ * with limbs of nine decimal digits.
+ *
+ * A loop over the characters that checks and converts one digit at a time is
+ * the bottleneck for input of a hundred megabytes and more. Here we read eight
+ * ASCII characters at once as one long ("SIMD within a register", SWAR): one
+ * subtraction turns all eight characters into digit values, two mask
+ * comparisons check that all eight were digits, and three multiply-and-mask
+ * steps combine them into the 8-digit value:
+ *
+ * pairs  = (d * 10 + (d >>> 8)) & 0x00FF00FF00FF00FF     4 values of 2 digits
+ * quads  = (pairs * 100 + (pairs >>> 16)) & 0x0000FFFF0000FFFF  2 values of 4
+ * eight  = (quads * 10000 + (quads >>> 32)) & 0xFFFFFFFF  1 value of 8
+ *
+ * The long is read little-endian, so the first character lands in the lowest
+ * byte, and every step puts the more significant part in the lower bits times
+ * its weight. For single digits there is nothing to combine: the SWAR test
+ * checks 16 characters per step, and a plain subtraction loop, which the JIT
+ * compiler vectorizes, converts each block of 4096 characters right after it.
+ *
+ * Text may come from a byte[], a ByteBuffer (heap or direct, e.g., a mapped
+ * file) or any CharSequence. Leading zeros are kept in digit arrays; a
+ * PackedNumber drops them. Anything other than the characters 0 to 9 is a
+ * NumberFormatException.
+ */
+public class DecimalParser {
+
+    /** Views a byte[] as little-endian longs at any byte offset */
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+    private static final long SIXES = 0x0606060606060606L;
+
+    /** Characters checked and converted together when parsing single digits */
+    private static final int BLOCK = 4096;
+
+    /** Decimal digits in one PackedNumber limb */
+    private static final int LIMB_DIGITS = 9;
+
+    /**
+     * Parses decimal text into single digits.
+     *
+     * @param text   ASCII characters
+     * @param offset index of the first character
+     * @param length number of characters; must be at least 1
+     * @return one digit per character, most significant first
+     */
+    public static int[] parseDigits(final byte[] text, final int offset, final int length) {
+        return parseDigits(new ByteArrayText(text, offset, length));
+    } // method parseDigits
+
+    public static int[] parseDigits(final byte[] text) {
+        return parseDigits(text, 0, text.length);
+    } // method parseDigits
+
+    /**
+     * Parses the characters between position and limit of a buffer. The
+     * position of the buffer does not change.
+     */
+    public static int[] parseDigits(final ByteBuffer text) {
+        return parseDigits(new ByteBufferText(text));
+    } // method parseDigits
+
+    public static int[] parseDigits(final CharSequence text) {
+        return parseDigits(new CharSequenceText(text));
+    } // method parseDigits
+
+    /**
+     * Parses decimal text into a PackedNumber in base 10, nine digits per limb.
+     *
+     * @param text   ASCII characters
+     * @param offset index of the first character
+     * @param length number of characters; must be at least 1
+     * @return the number, without leading zeros
+     */
+    public static PackedNumber parsePacked(final byte[] text, final int offset, final int length) {
+        return parsePacked(new ByteArrayText(text, offset, length));
+    } // method parsePacked
+
+    public static PackedNumber parsePacked(final byte[] text) {
+        return parsePacked(text, 0, text.length);
+    } // method parsePacked
+
+    public static PackedNumber parsePacked(final ByteBuffer text) {
+        return parsePacked(new ByteBufferText(text));
+    } // method parsePacked
+
+    public static PackedNumber parsePacked(final CharSequence text) {
+        return parsePacked(new CharSequenceText(text));
+    } // method parsePacked
+
+    private static int[] parseDigits(final Text text) {
+        int length = checkedLength(text);
+        int[] digits = new int[length];
+        // Check a block with SWAR, then convert it while it is still in the cache
+        for (int start = 0; start < length; start += BLOCK) {
+            int end = Math.min(length, start + BLOCK);
+            checkDigits(text, start, end);
+            text.copyDigits(start, end, digits);
+        }
+        return digits;
+    } // method parseDigits
+
+    /**
+     * Checks that characters start .. end-1 are all digits, 16 at a time. The
+     * words are only combined, not branched on; a bad block is scanned again one
+     * character at a time to report the first bad character.
+     */
+    private static void checkDigits(final Text text, final int start, final int end) {
+        long bad = 0;
+        int i = start;
+        for (; i + 16 <= end; i += 16) {
+            bad |= notDigits(text.word(i)) | notDigits(text.word(i + 8));
+        }
+        for (; i + 8 <= end; i += 8) {
+            bad |= notDigits(text.word(i));
+        }
+        for (; i < end; i++) {
+            digitAt(text, i);
+        }
+        if (bad != 0) {
+            for (i = start; i < end; i++) {
+                digitAt(text, i);
+            }
+        }
+    } // method checkDigits
+
+    private static PackedNumber parsePacked(final Text text) {
+        int length = checkedLength(text);
+        int[] limbs = new int[(length + LIMB_DIGITS - 1) / LIMB_DIGITS];
+        // Limb k holds the nine digits that end 9k characters from the end; only the
+        // most significant limb can be shorter
+        for (int k = 0; k < limbs.length; k++) {
+            int end = length - k * LIMB_DIGITS;
+            int start = end - LIMB_DIGITS;
+            if (start >= 0) {
+                limbs[k] = digitAt(text, start) * 100_000_000 + eightDigitValue(digitsOf(text, start + 1));
+            } else {
+                int limb = 0;
+                for (int i = 0; i < end; i++) {
+                    limb = limb * 10 + digitAt(text, i);
+                }
+                limbs[k] = limb;
+            }
+        }
+        return new PackedNumber(limbs, 10);
+    } // method parsePacked
+
+    /**
+     * Reads eight characters and turns them into eight digit values, one per
+     * byte, the first character in the lowest byte.
+     */
+    private static long digitsOf(final Text text, final int index) {
+        long word = text.word(index);
+        if (notDigits(word) != 0) {
+            for (int k = 0; k < 8; k++) {
+                digitAt(text, index + k); // throws for the first bad character
+            }
+        }
+        return word - ZEROS;
+    } // method digitsOf
+
+    /**
+     * Tests eight characters at once. A byte is a digit when its high nibble is 3
+     * and adding 6 keeps it at 3, i.e., the low nibble is at most 9.
+     *
+     * @return 0 if all eight characters are digits
+     */
+    private static long notDigits(final long word) {
+        return ((word & HIGH_NIBBLES) ^ ZEROS) | (((word + SIXES) & HIGH_NIBBLES) ^ ZEROS);
+    } // method notDigits
+
+    /** Combines eight digit values from digitsOf into one number below 10^8 */
+    private static int eightDigitValue(long digits) {
+        digits = (digits * 10 + (digits >>> 8)) & 0x00FF00FF00FF00FFL;
+        digits = (digits * 100 + (digits >>> 16)) & 0x0000FFFF0000FFFFL;
+        digits = (digits * 10000 + (digits >>> 32)) & 0xFFFFFFFFL;
+        return (int) digits;
+    } // method eightDigitValue
+
+    private static int digitAt(final Text text, final int index) {
+        int c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Not a decimal digit: '" + (char) c + "' at position " + index);
+        }
+        return c - '0';
+    } // method digitAt
+
+    private static int checkedLength(final Text text) {
+        if (text.length() == 0) {
+            throw new NumberFormatException("No digits");
+        }
+        return text.length();
+    } // method checkedLength
+
+    /** Random access to the characters of the input, one or eight at a time */
+    private interface Text {
+
+        int length();
+
+        int charAt(int index);
+
+        /** Characters index .. index+7, the first one in the lowest byte */
+        long word(int index);
+
+        /** Stores the values of the digits start .. end-1 at the same positions of out */
+        void copyDigits(int start, int end, int[] out);
+    } // interface Text
+
+    private static class ByteArrayText implements Text {
+
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        ByteArrayText(final byte[] bytes, final int offset, final int length) {
+            if (offset < 0 || length < 0 || offset + length > bytes.length) {
+                throw new IndexOutOfBoundsException("Range " + offset + " + " + length + " outside " + bytes.length);
+            }
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        } // constructor
+
+        @Override
+        public int length() {
+            return this.length;
+        } // method length
+
+        @Override
+        public int charAt(final int index) {
+            return this.bytes[this.offset + index] & 0xFF;
+        } // method charAt
+
+        @Override
+        public long word(final int index) {
+            return (long) LONGS.get(this.bytes, this.offset + index);
+        } // method word
+
+        @Override
+        public void copyDigits(final int start, final int end, final int[] out) {
+            for (int i = start; i < end; i++) {
+                out[i] = this.bytes[this.offset + i] - '0';
+            }
+        } // method copyDigits
+    } // class ByteArrayText
+
+    private static class ByteBufferText implements Text {
+
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        ByteBufferText(final ByteBuffer buffer) {
+            // A duplicate has its own byte order, so the caller's buffer is untouched
+            this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            this.offset = buffer.position();
+            this.length = buffer.remaining();
+        } // constructor
+
+        @Override
+        public int length() {
+            return this.length;
+        } // method length
+
+        @Override
+        public int charAt(final int index) {
+            return this.buffer.get(this.offset + index) & 0xFF;
+        } // method charAt
+
+        @Override
+        public long word(final int index) {
+            return this.buffer.getLong(this.offset + index);
+        } // method word
+
+        @Override
+        public void copyDigits(final int start, final int end, final int[] out) {
+            for (int i = start; i < end; i++) {
+                out[i] = this.buffer.get(this.offset + i) - '0';
+            }
+        } // method copyDigits
+    } // class ByteBufferText
+
+    private static class CharSequenceText implements Text {
+
+        private final CharSequence chars;
+
+        CharSequenceText(final CharSequence chars) {
+            this.chars = chars;
+        } // constructor
+
+        @Override
+        public int length() {
+            return this.chars.length();
+        } // method length
+
+        @Override
+        public int charAt(final int index) {
+            return this.chars.charAt(index);
+        } // method charAt
+
+        @Override
+        public long word(final int index) {
+            long word = 0;
+            for (int k = 7; k >= 0; k--) {
+                char c = this.chars.charAt(index + k);
+                // Characters outside ASCII become byte 0, which fails the digit test
+                word = (word << 8) | ((c < 0x80) ? c : 0);
+            }
+            return word;
+        } // method word
+
+        @Override
+        public void copyDigits(final int start, final int end, final int[] out) {
+            for (int i = start; i < end; i++) {
+                out[i] = this.chars.charAt(i) - '0';
+            }
+        } // method copyDigits
+    } // class CharSequenceText
+
+    public static void main(String[] args) {
+        byte[] text = "12345678901234567890".getBytes(StandardCharsets.US_ASCII);
+        System.out.println(Arrays.toString(parseDigits(text)));
+        System.out.println(parsePacked(text).limbCount() + " limbs: " + parsePacked(text));
+    } // method main
+} // class DecimalParser
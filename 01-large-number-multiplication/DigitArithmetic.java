@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+/**
+ * Helper routines shared by the multiplication engines in this folder. All
+ * numbers are arrays of single digits in the given base, stored most
+ * significant digit first -- the same layout that
+ * GradeSchoolMultiplication_Solution.multiply expects and returns. For example,
+ * in base 10 the array [4,0,7,7] represents the value 4077.
+ *
+ * The methods here do not check that digits are < base. Like the schoolbook
+ * method, they rely on base * base fitting in an int.
+ */
+final class DigitArithmetic {
+
+    /** Utility class -- no objects */
+    private DigitArithmetic() {
+    } // private constructor
+
+    /**
+     * Copies an array of digits into a longer array, right-aligned, so that the
+     * extra positions become leading zeros. The value represented does not change.
+     *
+     * @param x      digits to copy
+     * @param length length of the new array; must be >= x.length
+     * @return a new array with x right-aligned in it
+     */
+    static int[] padded(final int[] x, final int length) {
+        int[] result = new int[length];
+        System.arraycopy(x, 0, result, length - x.length, x.length);
+        return result;
+    } // method padded
+
+    /**
+     * Removes leading zeros. The number 0 becomes the empty array.
+     *
+     * @param x digits, possibly with leading zeros
+     * @return x itself if it has no leading zeros, otherwise a trimmed copy
+     */
+    static int[] trimmed(final int[] x) {
+        int start = 0;
+        while (start < x.length && x[start] == 0) {
+            start++;
+        }
+        return (start == 0) ? x : Arrays.copyOfRange(x, start, x.length);
+    } // method trimmed
+
+    /**
+     * Writes a non-negative long in digits of the base.
+     *
+     * @param value the number, >= 0
+     * @param base  number system base
+     * @return the digits without leading zeros; 0 is [0]
+     */
+    static int[] fromLong(long value, final int base) {
+        int[] digits = new int[64];
+        int position = digits.length;
+        do {
+            digits[--position] = (int) (value % base);
+            value /= base;
+        } while (value > 0);
+        return Arrays.copyOfRange(digits, position, digits.length);
+    } // method fromLong
+
+    /**
+     * Compares two numbers without leading zeros.
+     *
+     * @param a one number, trimmed
+     * @param b other number, trimmed
+     * @return a negative number, 0, or a positive number as a is less than,
+     *         equal to, or greater than b
+     */
+    static int compare(final int[] a, final int[] b) {
+        if (a.length != b.length) {
+            return (a.length > b.length) ? 1 : -1;
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return (a[i] > b[i]) ? 1 : -1;
+            }
+        }
+        return 0;
+    } // method compare
+
+    /**
+     * Adds two numbers. The sum has one more digit than the longer operand, so
+     * that there is always room for the final carry.
+     *
+     * @param a    one operand
+     * @param b    other operand
+     * @param base number system base
+     * @return a new array with a + b, of length max(a.length, b.length) + 1
+     */
+    static int[] add(final int[] a, final int[] b, final int base) {
+        int[] sum = padded(a, Math.max(a.length, b.length) + 1);
+        addShifted(sum, b, 0, base);
+        return sum;
+    } // method add
+
+    /**
+     * Adds source * base^shift into target, in place. Target must be long enough
+     * to hold the sum; any leading zeros of source that fall outside target are
+     * ignored.
+     *
+     * @param target array that receives the sum
+     * @param source array to add
+     * @param shift  how many positions to the left source is moved before adding
+     * @param base   number system base
+     */
+    static void addShifted(int[] target, final int[] source, final int shift, final int base) {
+        int carry = 0;
+        // Position in target that lines up with the last digit of source
+        int t = target.length - 1 - shift;
+        for (int s = source.length - 1; s >= 0 && t >= 0; s--) {
+            int sum = target[t] + source[s] + carry;
+            target[t] = sum % base;
+            carry = sum / base;
+            t--;
+        }
+        // Ripple any carry left over into the higher digits of target
+        while (carry > 0 && t >= 0) {
+            int sum = target[t] + carry;
+            target[t] = sum % base;
+            carry = sum / base;
+            t--;
+        }
+    } // method addShifted
+
+    /**
+     * Subtracts source * base^shift from target, in place. The caller guarantees
+     * that the difference is not negative.
+     *
+     * @param target array that receives the difference
+     * @param source array to subtract
+     * @param shift  how many positions to the left source is moved before
+     *               subtracting
+     * @param base   number system base
+     */
+    static void subtractShifted(int[] target, final int[] source, final int shift, final int base) {
+        int borrow = 0;
+        int t = target.length - 1 - shift;
+        for (int s = source.length - 1; s >= 0 && t >= 0; s--) {
+            int difference = target[t] - source[s] - borrow;
+            borrow = (difference < 0) ? 1 : 0;
+            target[t] = difference + borrow * base;
+            t--;
+        }
+        while (borrow > 0 && t >= 0) {
+            int difference = target[t] - borrow;
+            borrow = (difference < 0) ? 1 : 0;
+            target[t] = difference + borrow * base;
+            t--;
+        }
+    } // method subtractShifted
+
+    /**
+     * Shapes an exact product the way GradeSchoolMultiplication_Solution.multiply
+     * returns it: x.length + y.length digits, minus one digit when the first of
+     * them is a leading 0. Engines that compute the product in a longer array call
+     * this so that every engine returns identical arrays.
+     *
+     * @param product the product, right-aligned, in an array of any length
+     * @param xLength number of digits in the first operand
+     * @param yLength number of digits in the second operand
+     * @return the product in the shape of the schoolbook result
+     */
+    static int[] toProductShape(int[] product, final int xLength, final int yLength) {
+        int length = xLength + yLength;
+        // Short products get leading zeros so that they line up with the schoolbook
+        if (product.length < length) {
+            product = padded(product, length);
+        }
+        int start = product.length - length;
+        // If the product has a leading 0, remove it
+        if (product[start] == 0) {
+            start++;
+        }
+        return Arrays.copyOfRange(product, start, product.length);
+    } // method toProductShape
+
+} // class DigitArithmetic
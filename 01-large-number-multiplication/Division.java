@@ -0,0 +1,294 @@
+import java.util.Arrays; // for toString() and copyOfRange()
+
+/**
+ * Division with remainder of integers represented as arrays of single digits,
+ * most significant first, in the same form and base as
+ * GradeSchoolMultiplication_Solution.
+ *
+ * Long division as taught in school finds one quotient digit at a time, each
+ * costing a pass over the divisor: n * m steps for an m-digit quotient and an
+ * n-digit divisor, like the grade school multiplication. For large numbers we
+ * divide with multiplications instead, so that division gets as fast as the
+ * fastest multiplication engine:
+ *
+ * 1. Compute the reciprocal Z = floor(base^(2p) / y) of the divisor, to p
+ * digits, where p is about the length of the quotient. Newton's iteration for
+ * 1/y,
+ *
+ * z = z + z * (1 - y * z),
+ *
+ * doubles the number of correct digits with every step, so we start from a
+ * reciprocal of the leading half of the digits, computed the same way, and
+ * need only one step at each precision. The steps cost multiplications of p,
+ * p/2, p/4, ... digits, a few multiplications of p digits altogether.
+ *
+ * 2. The quotient is then x * Z / base^(2p), shifted, off by at most a few
+ * units; one multiplication q * y tells by how much, and a few additions or
+ * subtractions of y fix it.
+ *
+ * The whole division costs a small constant times one multiplication. Short
+ * quotients take the same path: with p small, the reciprocal is that of the p
+ * leading digits of y, only the leading digits of x enter the estimate, and the
+ * check q * y is an unbalanced multiplication, fast for a short q. Short
+ * divisors, where long division takes time linear in the dividend, go to long
+ * division.
+ */
+public class Division {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /**
+     * Divisors up to this many digits use long division; it is also the base
+     * case of the reciprocal
+     */
+    static final int LONG_DIVISION_CUTOFF = 64;
+
+    /**
+     * Extra digits in the leading part of the divisor whose reciprocal seeds each
+     * Newton step, so that the step lands within a few units of the exact result
+     */
+    private static final int GUARD_DIGITS = 2;
+
+    /**
+     * Divides two integers represented as arrays.
+     *
+     * @param x    the dividend
+     * @param y    the divisor; must not be 0
+     * @param base the number base of the system
+     * @return two arrays, the quotient floor(x / y) and the remainder x - q * y,
+     *         each without leading zeros, and [0] for 0
+     */
+    public static int[][] divideAndRemainder(final int[] x, final int[] y, final int base) {
+        int[] dividend = DigitArithmetic.trimmed(x);
+        int[] divisor = DigitArithmetic.trimmed(y);
+        if (divisor.length == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        int[][] result = quotientAndRemainder(dividend, divisor, base);
+        return new int[][] { nonEmpty(result[0]), nonEmpty(result[1]) };
+    } // method divideAndRemainder
+
+    public static int[][] divideAndRemainder(final int[] x, final int[] y) {
+        return divideAndRemainder(x, y, DEFAULT_BASE);
+    } // method divideAndRemainder
+
+    /** @return floor(x / y), without leading zeros */
+    public static int[] divide(final int[] x, final int[] y, final int base) {
+        return divideAndRemainder(x, y, base)[0];
+    } // method divide
+
+    /** @return x mod y, without leading zeros */
+    public static int[] remainder(final int[] x, final int[] y, final int base) {
+        return divideAndRemainder(x, y, base)[1];
+    } // method remainder
+
+    /**
+     * Computes a reciprocal in fixed point: floor(base^exponent / y).
+     *
+     * @param y        the number to invert; must not be 0
+     * @param exponent the power of the base to divide; the result has about
+     *                 exponent - y.length + 1 digits
+     * @param base     the number base of the system
+     * @return floor(base^exponent / y), without leading zeros
+     */
+    public static int[] reciprocal(final int[] y, final int exponent, final int base) {
+        return divide(powerOfBase(exponent), y, base);
+    } // method reciprocal
+
+    /**
+     * Division of trimmed operands.
+     *
+     * @return quotient and remainder, trimmed (0 is the empty array)
+     */
+    static int[][] quotientAndRemainder(final int[] x, final int[] y, final int base) {
+        int n = y.length;
+        int m = x.length;
+        if (DigitArithmetic.compare(x, y) < 0) {
+            return new int[][] { new int[0], x };
+        }
+        if (n <= LONG_DIVISION_CUTOFF) {
+            return longDivision(x, y, base);
+        }
+        // Precision: the quotient has at most m - n + 1 digits, plus guard digits
+        int p = m - n + 1 + GUARD_DIGITS;
+        // The p leading digits of y, padded with zeros if y is shorter; then
+        // x / y is about x * Z / base^(n + p)
+        int[] yLeading = leading(y, p);
+        int[] z = reciprocalOf(yLeading, base);
+        // Only the leading digits of x matter for that estimate, too
+        int drop = Math.max(0, n - p);
+        int[] xLeading = Arrays.copyOfRange(x, 0, m - drop);
+        int[] estimate = GradeSchoolMultiplication_Solution.multiply(xLeading, z, base);
+        int[] q = DigitArithmetic.trimmed(Arrays.copyOfRange(estimate, 0,
+                Math.max(0, estimate.length - (n + p - drop))));
+        return corrected(x, y, q, base);
+    } // method quotientAndRemainder
+
+    /**
+     * Fixes a quotient that is off by a few units: computes x - q * y and adds
+     * or subtracts y until the remainder is in [0, y).
+     */
+    private static int[][] corrected(final int[] x, final int[] y, int[] q, final int base) {
+        int[] product = DigitArithmetic.trimmed(GradeSchoolMultiplication_Solution.multiply(q, y, base));
+        if (DigitArithmetic.compare(product, x) > 0) {
+            // q is too large: remove copies of y from the excess
+            int[] excess = difference(product, x, base);
+            do {
+                q = difference(q, new int[] { 1 }, base);
+                if (DigitArithmetic.compare(excess, y) <= 0) {
+                    return new int[][] { q, difference(y, excess, base) };
+                }
+                excess = difference(excess, y, base);
+            } while (true);
+        }
+        int[] remainder = difference(x, product, base);
+        while (DigitArithmetic.compare(remainder, y) >= 0) {
+            remainder = difference(remainder, y, base);
+            q = DigitArithmetic.trimmed(DigitArithmetic.add(q, new int[] { 1 }, base));
+        }
+        return new int[][] { q, remainder };
+    } // method corrected
+
+    /**
+     * Computes Z = floor(base^(2p) / y) for a p-digit y by Newton's iteration,
+     * with the precision doubling from one recursion level to the next.
+     *
+     * @param y p digits, no leading zero
+     * @return Z, without leading zeros
+     */
+    private static int[] reciprocalOf(final int[] y, final int base) {
+        int p = y.length;
+        if (p <= LONG_DIVISION_CUTOFF) {
+            return longDivision(powerOfBase(2 * p), y, base)[0];
+        }
+        // Reciprocal of the leading h digits, scaled to p digits: an
+        // approximation of base^(2p) / y with about 2h - 2 correct digits
+        int h = p / 2 + GUARD_DIGITS;
+        int[] zHalf = reciprocalOf(Arrays.copyOf(y, h), base);
+        int[] z = shiftedLeft(zHalf, p - h);
+        // One Newton step: z + z * (base^(2p) - y * z) / base^(2p)
+        int[] one = powerOfBase(2 * p);
+        int[] yz = DigitArithmetic.trimmed(GradeSchoolMultiplication_Solution.multiply(y, z, base));
+        if (DigitArithmetic.compare(yz, one) <= 0) {
+            int[] error = difference(one, yz, base);
+            int[] step = shiftedRight(GradeSchoolMultiplication_Solution.multiply(z, error, base), 2 * p);
+            z = DigitArithmetic.trimmed(DigitArithmetic.add(z, step, base));
+        } else {
+            int[] error = difference(yz, one, base);
+            // Round the correction up rather than down
+            int[] step = shiftedRight(GradeSchoolMultiplication_Solution.multiply(z, error, base), 2 * p);
+            z = difference(z, DigitArithmetic.trimmed(DigitArithmetic.add(step, new int[] { 1 }, base)), base);
+        }
+        // The step leaves z within a few units; make it exact
+        return corrected(one, y, z, base)[0];
+    } // method reciprocalOf
+
+    /**
+     * Long division, one quotient digit at a time. The running remainder is a
+     * window of n + 1 digits that moves along a copy of x, so that each of the
+     * m - n + 1 quotient digits costs one pass over y and nothing is copied. Each
+     * digit is estimated from the three leading digits of the window and the two
+     * leading digits of y; the estimate is never too large and at most 2 too
+     * small, and the loop after it makes it exact.
+     *
+     * @return quotient and remainder, trimmed
+     */
+    static int[][] longDivision(final int[] x, final int[] y, final int base) {
+        int n = y.length;
+        int m = x.length;
+        if (m < n) {
+            return new int[][] { new int[0], DigitArithmetic.trimmed(x) };
+        }
+        // remainder[k + 1] = x[k], behind a leading 0; quotient digit j works on
+        // the window remainder[j] .. remainder[j + n], which ends at x[j + n - 1]
+        int[] remainder = new int[m + 1];
+        System.arraycopy(x, 0, remainder, 1, m);
+        int[] quotient = new int[m - n + 1];
+        long divisorTop = (n == 1) ? y[0] : (long) y[0] * base + y[1] + 1;
+        for (int j = 0; j <= m - n; j++) {
+            long digit;
+            if (n == 1) {
+                digit = ((long) remainder[j] * base + remainder[j + 1]) / divisorTop;
+            } else {
+                long top = ((long) remainder[j] * base + remainder[j + 1]) * base + remainder[j + 2];
+                digit = top / divisorTop;
+            }
+            subtractMultipleAt(remainder, j, y, (int) digit, base);
+            while (remainder[j] > 0 || compareAt(remainder, j + 1, y) >= 0) {
+                subtractMultipleAt(remainder, j, y, 1, base);
+                digit++;
+            }
+            quotient[j] = (int) digit;
+        }
+        return new int[][] { DigitArithmetic.trimmed(quotient),
+                DigitArithmetic.trimmed(Arrays.copyOfRange(remainder, m - n + 1, m + 1)) };
+    } // method longDivision
+
+    /**
+     * Subtracts factor * y from the n + 1 digits window[start .. start + n], in
+     * place, with y aligned at the end of the window. The caller guarantees that
+     * the difference is not negative.
+     */
+    private static void subtractMultipleAt(int[] window, final int start, final int[] y, final int factor,
+            final int base) {
+        long borrow = 0;
+        int t = start + y.length;
+        for (int s = y.length - 1; s >= 0; s--, t--) {
+            long difference = window[t] - (long) factor * y[s] - borrow;
+            // Borrow just enough from the next position to make this digit >= 0
+            borrow = (difference < 0) ? (-difference + base - 1) / base : 0;
+            window[t] = (int) (difference + borrow * base);
+        }
+        window[start] -= (int) borrow;
+    } // method subtractMultipleAt
+
+    /** Compares the y.length digits of a from position start on with y, like DigitArithmetic.compare */
+    private static int compareAt(final int[] a, final int start, final int[] y) {
+        for (int i = 0; i < y.length; i++) {
+            if (a[start + i] != y[i]) {
+                return (a[start + i] > y[i]) ? 1 : -1;
+            }
+        }
+        return 0;
+    } // method compareAt
+
+    /** a - b for trimmed a >= b, trimmed */
+    private static int[] difference(final int[] a, final int[] b, final int base) {
+        int[] result = a.clone();
+        DigitArithmetic.subtractShifted(result, b, 0, base);
+        return DigitArithmetic.trimmed(result);
+    } // method difference
+
+    /** The first count digits of x, or x followed by zeros up to count digits */
+    private static int[] leading(final int[] x, final int count) {
+        return Arrays.copyOf(x, count);
+    } // method leading
+
+    /** x * base^shift */
+    private static int[] shiftedLeft(final int[] x, final int shift) {
+        return Arrays.copyOf(x, x.length + shift);
+    } // method shiftedLeft
+
+    /** floor(x / base^shift), trimmed */
+    private static int[] shiftedRight(final int[] x, final int shift) {
+        return DigitArithmetic.trimmed(Arrays.copyOfRange(x, 0, Math.max(0, x.length - shift)));
+    } // method shiftedRight
+
+    /** base^exponent: a 1 followed by exponent zeros */
+    static int[] powerOfBase(final int exponent) {
+        int[] power = new int[exponent + 1];
+        power[0] = 1;
+        return power;
+    } // method powerOfBase
+
+    private static int[] nonEmpty(final int[] x) {
+        return (x.length == 0) ? new int[1] : x;
+    } // method nonEmpty
+
+    public static void main(String[] args) {
+        int[] x = { 7, 0, 0, 6, 6, 5, 2 };
+        int[] y = { 5, 6, 7, 8 };
+        int[][] qr = divideAndRemainder(x, y);
+        System.out.println(Arrays.toString(qr[0]) + " remainder " + Arrays.toString(qr[1]));
+    } // method main
+} // class Division
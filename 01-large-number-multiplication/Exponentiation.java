@@ -0,0 +1,104 @@
+import java.util.Arrays; // for toString() and copyOf()
+
+/**
+ * Powers of integers represented as arrays of single digits, most significant
+ * digit first, as in GradeSchoolMultiplication_Solution.
+ *
+ * Computing x^exponent by multiplying x into a running product exponent times
+ * takes exponent - 1 multiplications. Exponentiation by squaring needs only
+ * about log2(exponent) squares plus at most as many multiplications. It reads
+ * the bits of the exponent from the most significant one down; for example,
+ * 13 = 1101 in binary, and
+ *
+ * x^1 -> x^2 -> x^3 -> x^6 -> x^12 -> x^13
+ * (start, square, times x, square, square, times x)
+ *
+ * Every square doubles the number of digits, so the final few steps do almost
+ * all of the work. Each step asks MultiplicationEngine.fastest which engine to
+ * use for the current size, so the small early steps stay on the grade school
+ * method and the large final ones move on to the transform.
+ *
+ * The grade school steps do not allocate: they alternate between two buffers,
+ * each step reading the power from one and writing the next power into the
+ * other (GradeSchoolMultiplication_Solution.square and multiply with an output
+ * array). The buffers only grow when the power outgrows them. Once the power is
+ * large enough for another engine, the steps go through that engine, which
+ * returns a new array each time; those steps are few, since each doubles the
+ * size.
+ */
+public class Exponentiation {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /**
+     * Raises an integer represented as an array to a power.
+     *
+     * @param x        array with the integer to raise, most significant digit first
+     * @param exponent the power; must not be negative
+     * @param base     the number base of the system
+     * @return x^exponent as an array of digits without leading zeros; x^0 is [1]
+     *         (also when x is 0), and 0^exponent is [0]
+     */
+    public static int[] pow(final int[] x, final long exponent, final int base) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Negative exponent: " + exponent);
+        }
+        if (exponent == 0) {
+            return new int[] { 1 };
+        }
+        // Leading zeros would double with every square, so drop them first
+        int[] factor = DigitArithmetic.trimmed(x);
+        if (factor.length == 0) {
+            return new int[1];
+        }
+        int bit = 62 - Long.numberOfLeadingZeros(exponent);
+        // Small steps: the grade school method, writing each power into the buffer
+        // that does not hold the current one. The factor is never longer than the
+        // power, so when squaring the power is a grade school step, multiplying it
+        // by the factor is one too.
+        int[] current = factor.clone();
+        int[] spare = new int[2 * factor.length];
+        int length = factor.length;
+        for (; bit >= 0
+                && MultiplicationEngine.fastest(length, length, base) == MultiplicationEngine.SCHOOLBOOK; bit--) {
+            spare = withCapacity(spare, 2 * length);
+            length = GradeSchoolMultiplication_Solution.square(current, 0, length, base, spare, 0);
+            int[] swap = current;
+            current = spare;
+            spare = swap;
+            if (((exponent >> bit) & 1) == 1) {
+                spare = withCapacity(spare, length + factor.length);
+                length = GradeSchoolMultiplication_Solution.multiply(current, 0, length, factor, 0, factor.length,
+                        base, spare, 0);
+                swap = current;
+                current = spare;
+                spare = swap;
+            }
+        }
+        int[] result = Arrays.copyOf(current, length);
+        // Large steps: walk the remaining bits with the engine for each size
+        for (; bit >= 0; bit--) {
+            result = GradeSchoolMultiplication_Solution.square(result, base,
+                    MultiplicationEngine.fastest(result.length, result.length, base));
+            if (((exponent >> bit) & 1) == 1) {
+                result = GradeSchoolMultiplication_Solution.multiply(result, factor, base);
+            }
+        }
+        return result;
+    } // method pow
+
+    /** Returns buffer if it has room for length digits, otherwise a larger empty one */
+    private static int[] withCapacity(final int[] buffer, final int length) {
+        return (buffer.length >= length) ? buffer : new int[Math.max(length, 2 * buffer.length)];
+    } // method withCapacity
+
+    public static int[] pow(final int[] x, final long exponent) {
+        return pow(x, exponent, DEFAULT_BASE);
+    } // method pow
+
+    public static void main(String[] args) {
+        int[] x = { 3 };
+        int[] z = pow(x, 100);
+        System.out.println(Arrays.toString(z));
+    } // method main
+} // class Exponentiation
@@ -1,4 +1,4 @@
-import java.util.Arrays; // for toString() only
+import java.util.Arrays; // for toString() and copyOf()
 
 public class GradeSchoolMultiplication_Solution {
 
@@ -17,66 +17,306 @@ public class GradeSchoolMultiplication_Solution {
      * @return the product of the two numbers in arrays, also in the form of an
      *         array.
      */
-    public static int[] multiply(final int[] x, final int[] y, final int base) {
-        // Declare the output array
-        int[] result;
-        // If one of the input arrays has 0 length, prepare to return [0]
+    public static int[] multiplySchoolbook(final int[] x, final int[] y, final int base) {
+        // If one of the input arrays has 0 length, return [0]
         if (x.length == 0 || y.length == 0) {
-            result = new int[1];
-        } else {
-            // Prepare the result array with as many digits as the two input arrays together
-            result = new int[x.length + y.length];
-            // Set up a two-dimensional array to capture the partials products
-            int[][] partial = new int[x.length][x.length + y.length];
-            // Variable to shift partial product one position to the left as we make our way
-            // through
-            int shiftLeft = 0;
-            // Declare the loop variables. Usually, we declare them so that they exist only
-            // within the for-loop scope. However we want access to, at least j, outside the
-            // loop scope, hence the early declaration.
-            int i, j;
-            // Multiply every digit of one array with every digit of the other array, from
-            // back to front.
-            for (i = x.length - 1; i >= 0; i--) {
-                int carry = 0;
-                for (j = y.length - 1; j >= 0; j--) {
-                    int product = carry + x[i] * y[j];
-                    partial[i][j + y.length - shiftLeft] = product % base;
-                    carry = product / base;
-                }
-                // If there at the end of this round, place it to the front of the corresponding
-                // partial product. That's why we need variable j to be available outside the
-                // scope of its loop.
-                partial[i][j + y.length - shiftLeft] = carry;
-                shiftLeft++;
-            }
-            // Add the partial products into the result array
+            return new int[1];
+        }
+        // Prepare the result array with as many digits as the two input arrays together
+        int[] result = new int[x.length + y.length];
+        int length = multiply(x, y, base, result, 0);
+        // If result had a leading 0, it was shifted out; trim the spare position
+        if (length < result.length) {
+            result = Arrays.copyOf(result, length);
+        }
+        return result;
+    } // method multiplySchoolbook
+
+    /**
+     * Multiplies two integers represented as arrays, letting the sizes of the
+     * operands decide which algorithm to use. Small operands go to the grade
+     * school method above, larger ones to faster engines; the size limits come
+     * from MultiplicationTuning and can be calibrated for the machine at hand.
+     * When one operand is much longer than the other, it is cut into chunks that
+     * the engine multiplies one by one (see UnbalancedMultiplication). The
+     * product is the same whichever engine runs.
+     * 
+     * @param x    one of the two arrays with the integers to multiply
+     * @param y    the other array with the integer to multiply
+     * @param base the number base of the system
+     * @return the product of the two numbers in arrays, also in the form of an
+     *         array.
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base) {
+        MultiplicationEngine engine = MultiplicationEngine.fastest(x.length, y.length, base);
+        if (UnbalancedMultiplication.worthChunking(x.length, y.length, engine)) {
+            return UnbalancedMultiplication.multiply(x, y, base, engine);
+        }
+        return multiply(x, y, base, engine);
+    } // method multiply
+
+    /**
+     * Multiplies two integers represented as arrays and writes their product into
+     * an array supplied by the caller, starting at position offset. The digits
+     * written are exactly those that multiplySchoolbook(x, y, base) returns, and
+     * nothing is allocated, so a caller that multiplies over and over can reuse one
+     * output array.
+     * 
+     * The method uses x.length + y.length positions of the output array as
+     * workspace, even when the product has one digit less. Digits of out outside
+     * that range are left alone. The workspace is cleared before the operands are
+     * read, so out must not be x or y.
+     * 
+     * This is always the grade school method, whatever the size of the operands:
+     * its n * m steps need no memory besides the output. For large operands,
+     * multiply(x, y, base) is much faster.
+     * 
+     * @param x      one of the two arrays with the integers to multiply
+     * @param y      the other array with the integer to multiply
+     * @param base   the number base of the system (for carry and single digit ops)
+     * @param out    the array that receives the product; not x or y
+     * @param offset position in out where the product starts
+     * @return the number of digits in the product, i.e., the product occupies
+     *         out[offset] to out[offset + length - 1]
+     */
+    public static int multiply(final int[] x, final int[] y, final int base, int[] out, final int offset) {
+        return multiply(x, 0, x.length, y, 0, y.length, base, out, offset);
+    } // method multiply
+
+    /**
+     * Same as multiply(x, y, base, out, offset), but the operands are ranges of
+     * arrays: the digits x[xOffset] to x[xOffset + xLength - 1] and y[yOffset] to
+     * y[yOffset + yLength - 1]. A caller that keeps its numbers in buffers, such
+     * as Exponentiation.pow, can then multiply them without copying them out
+     * first. The output array must still be neither of the operand arrays.
+     * 
+     * @param x       array with one of the integers to multiply
+     * @param xOffset position of the most significant digit of that integer in x
+     * @param xLength number of digits of that integer
+     * @param y       array with the other integer to multiply
+     * @param yOffset position of the most significant digit of that integer in y
+     * @param yLength number of digits of that integer
+     * @param base    the number base of the system (for carry and single digit ops)
+     * @param out     the array that receives the product; not x or y
+     * @param offset  position in out where the product starts
+     * @return the number of digits in the product, i.e., the product occupies
+     *         out[offset] to out[offset + length - 1]
+     */
+    public static int multiply(final int[] x, final int xOffset, final int xLength, final int[] y,
+            final int yOffset, final int yLength, final int base, int[] out, final int offset) {
+        int length = Math.max(1, xLength + yLength);
+        if (out == x || out == y) {
+            throw new IllegalArgumentException("Output array must not be one of the operands");
+        }
+        if (offset < 0 || out.length - offset < length) {
+            throw new IllegalArgumentException(
+                    "Output needs " + length + " positions from offset " + offset + ", array has " + out.length);
+        }
+        // If one of the operands has 0 length, the product is [0]
+        if (xLength == 0 || yLength == 0) {
+            out[offset] = 0;
+            return 1;
+        }
+        // Clear the workspace; it may hold digits from an earlier call
+        for (int k = offset; k < offset + length; k++) {
+            out[k] = 0;
+        }
+        // Declare the loop variables. Usually, we declare them so that they exist only
+        // within the for-loop scope. However we want access to i outside the loop
+        // scope, hence the early declaration.
+        int i, j;
+        // Multiply every digit of one array with every digit of the other array, from
+        // back to front. Instead of storing each partial product in its own row, we
+        // add it straight into the result. Digit x[i] times digit y[j] belongs to
+        // position i + j + 1 of the result, so the result array plays the role of the
+        // column sums. This needs only xLength + yLength ints of memory, no matter
+        // how many partial products there are.
+        for (i = xLength - 1; i >= 0; i--) {
             int carry = 0;
-            for (j = x.length + y.length - 1; j >= 0; j--) {
-                int sum = carry;
-                for (i = x.length - 1; i >= 0; i--) {
-                    sum += partial[i][j];
-                }
-                result[j] = sum % base;
+            for (j = yLength - 1; j >= 0; j--) {
+                // At most (base-1) + (base-1)*(base-1) + (base-1) = base*base - 1
+                int sum = out[offset + i + j + 1] + x[xOffset + i] * y[yOffset + j] + carry;
+                out[offset + i + j + 1] = sum % base;
                 carry = sum / base;
             }
-            // If result has a leading 0, remove it
-            if (result[0] == 0) {
-                int[] temp = new int[result.length - 1];
-                for (i = 1; i < result.length; i++) {
-                    temp[i - 1] = result[i];
-                }
-                result = temp;
+            // Whatever carry is left at the end of the row goes in front of it. No
+            // earlier row has reached this position yet, so it is still 0.
+            out[offset + i] = carry;
+        }
+        // If the product has a leading 0, shift the other digits over it
+        if (out[offset] == 0) {
+            for (i = 1; i < length; i++) {
+                out[offset + i - 1] = out[offset + i];
             }
-            // Done!
+            length--;
         }
-        return result;
+        // Done!
+        return length;
     } // method multiply
 
     public static int[] multiply(final int[] x, final int[] y) {
         return multiply(x, y, DEFAULT_BASE);
     } // method multiply
 
+    /**
+     * Squares an integer represented as an array. The result is identical to
+     * multiply(x, x, base), but it takes about half the single-digit
+     * multiplications: the cross products x[i]*x[j] and x[j]*x[i] are equal, so we
+     * compute each pair once and double it. Only the products on the diagonal,
+     * x[i]*x[i], appear once.
+     * 
+     * @param x    the array with the integer to square
+     * @param base the number base of the system (for carry and single digit ops)
+     * @return the square of the number, in the same form as multiply returns it
+     */
+    public static int[] square(final int[] x, final int base) {
+        // If the input array has 0 length, return [0] like multiply does
+        if (x.length == 0) {
+            return new int[1];
+        }
+        int[] result = new int[2 * x.length];
+        int length = square(x, 0, x.length, base, result, 0);
+        // If result had a leading 0, it was shifted out; trim the spare position
+        if (length < result.length) {
+            result = Arrays.copyOf(result, length);
+        }
+        return result;
+    } // method square
+
+    /**
+     * Squares the digits x[xOffset] to x[xOffset + xLength - 1] and writes the
+     * square into an array supplied by the caller, starting at position offset.
+     * The digits written are exactly those that square(x, base) returns for that
+     * range, and nothing is allocated. As for multiply(x, y, base, out, offset),
+     * 2 * xLength positions of out serve as workspace, and out must not be x.
+     * 
+     * @param x       array with the integer to square
+     * @param xOffset position of the most significant digit of that integer in x
+     * @param xLength number of digits of that integer
+     * @param base    the number base of the system (for carry and single digit ops)
+     * @param out     the array that receives the square; not x
+     * @param offset  position in out where the square starts
+     * @return the number of digits in the square, i.e., the square occupies
+     *         out[offset] to out[offset + length - 1]
+     */
+    public static int square(final int[] x, final int xOffset, final int xLength, final int base, int[] out,
+            final int offset) {
+        int length = Math.max(1, 2 * xLength);
+        if (out == x) {
+            throw new IllegalArgumentException("Output array must not be the operand");
+        }
+        if (offset < 0 || out.length - offset < length) {
+            throw new IllegalArgumentException(
+                    "Output needs " + length + " positions from offset " + offset + ", array has " + out.length);
+        }
+        if (xLength == 0) {
+            out[offset] = 0;
+            return 1;
+        }
+        // Clear the workspace; it may hold digits from an earlier call
+        for (int k = offset; k < offset + length; k++) {
+            out[k] = 0;
+        }
+        int n = xLength;
+        int i, j;
+        // Add every cross product x[i]*x[j] with j > i once, row by row, as in multiply.
+        // Row i ends at position 2i+2, so its final carry goes to position 2i+1.
+        for (i = n - 1; i >= 0; i--) {
+            int carry = 0;
+            for (j = n - 1; j > i; j--) {
+                int sum = out[offset + i + j + 1] + x[xOffset + i] * x[xOffset + j] + carry;
+                out[offset + i + j + 1] = sum % base;
+                carry = sum / base;
+            }
+            out[offset + 2 * i + 1] = carry;
+        }
+        // Double the cross products
+        int carry = 0;
+        for (i = 2 * n - 1; i >= 0; i--) {
+            int doubled = 2 * out[offset + i] + carry;
+            out[offset + i] = doubled % base;
+            carry = doubled / base;
+        }
+        // Add the diagonal: x[i]*x[i] belongs to position 2i+1
+        carry = 0;
+        for (i = n - 1; i >= 0; i--) {
+            int digit = x[xOffset + i];
+            int sum = out[offset + 2 * i + 1] + digit * digit + carry;
+            out[offset + 2 * i + 1] = sum % base;
+            carry = sum / base;
+            sum = out[offset + 2 * i] + carry;
+            out[offset + 2 * i] = sum % base;
+            carry = sum / base;
+        }
+        // If the square has a leading 0, shift the other digits over it
+        if (out[offset] == 0) {
+            for (i = 1; i < length; i++) {
+                out[offset + i - 1] = out[offset + i];
+            }
+            length--;
+        }
+        return length;
+    } // method square
+
+    public static int[] square(final int[] x) {
+        return square(x, DEFAULT_BASE);
+    } // method square
+
+    /**
+     * Multiplies two integers represented as arrays with the chosen algorithm. The
+     * arguments and the result are the same as for multiply(x, y, base); only the
+     * speed and memory use depend on the engine.
+     * 
+     * @param x      one of the two arrays with the integers to multiply
+     * @param y      the other array with the integer to multiply
+     * @param base   the number base of the system
+     * @param engine the algorithm to use
+     * @return the product of the two numbers in arrays, also in the form of an
+     *         array.
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base, final MultiplicationEngine engine) {
+        switch (engine) {
+            case KARATSUBA:
+                return KaratsubaMultiplication.multiply(x, y, base);
+            case TOOM3:
+                return ToomCookMultiplication.multiply(x, y, base);
+            case NTT:
+                return NttMultiplication.multiply(x, y, base);
+            case PACKED:
+                return PackedNumber.multiply(x, y, base);
+            case PARALLEL:
+                return ParallelMultiplication.multiply(x, y, base);
+            default:
+                // Grade school method with column sums, on SIMD lanes when available
+                return ColumnSumMultiplication.multiply(x, y, base);
+        }
+    } // method multiply
+
+    /**
+     * Squares an integer represented as an array with the chosen algorithm. The
+     * result is identical to multiply(x, x, base, engine). Engines without a
+     * dedicated squaring method simply multiply x by itself.
+     * 
+     * @param x      the array with the integer to square
+     * @param base   the number base of the system
+     * @param engine the algorithm to use
+     * @return the square of the number, in the same form as multiply returns it
+     */
+    public static int[] square(final int[] x, final int base, final MultiplicationEngine engine) {
+        switch (engine) {
+            case SCHOOLBOOK:
+                return square(x, base);
+            case KARATSUBA:
+                return KaratsubaMultiplication.square(x, base);
+            case TOOM3:
+                return ToomCookMultiplication.square(x, base);
+            case NTT:
+                return NttMultiplication.square(x, base);
+            default:
+                return multiply(x, x, base, engine);
+        }
+    } // method square
+
     public static void main(String[] args) {
         int[] x = { 1, 2, 3, 4 };
         int[] y = { 5, 6, 7, 8 };
@@ -0,0 +1,289 @@
+import java.util.ArrayDeque;
+import java.util.Arrays; // for toString() and copyOfRange()
+import java.util.Deque;
+
+/**
+ * Integer square roots and k-th roots, floor(sqrt(x)) and floor(x^(1/k)), of
+ * integers represented as arrays of single digits, most significant first, as
+ * in GradeSchoolMultiplication_Solution.
+ *
+ * Newton's iteration for the k-th root itself,
+ *
+ * r = ((k - 1) * r + x / r^(k-1)) / k    (all divisions rounded down),
+ *
+ * needs a division of full size in every step, and a division costs several
+ * multiplications (see Division). We use it only for roots of up to
+ * INVERSE_ROOT_CUTOFF digits. Larger roots come from Newton's iteration for the
+ * inverse root y = x^(-1/k),
+ *
+ * y = y + y * (1 - x * y^k) / k,
+ *
+ * which needs no division at all: the division by k is by a single small
+ * number. Near the inverse root, every step doubles the number of correct
+ * digits, so we double the precision with every step as well. A step from p
+ * to about 2p digits takes the power y^k of p-digit numbers, one product of
+ * about 2p by 2p digits with the leading digits of x, and one product of p by p
+ * digits; all steps together cost about twice the last one. Finally, the root
+ * is x * y^(k-1), which one more product of root size gives, and a check of the
+ * result, r^k <= x < (r+1)^k, fixes the last unit.
+ *
+ * For a square root of x with 2n digits, that is about five products of n by n
+ * digits, or two and a half of 2n by 2n digits, plus a square for the check.
+ * For a cube root of x with 3n digits, the powers y^3 and the final y^2 and r^3
+ * add about three more products of n by n digits.
+ */
+public class IntegerRoots {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Numbers with at most this many digits are rooted by Newton's iteration from a rough start */
+    private static final int NEWTON_CUTOFF = 32;
+
+    /** Roots with at most this many digits come from Newton's iteration with divisions */
+    private static final int INVERSE_ROOT_CUTOFF = 64;
+
+    /**
+     * Computes the integer square root.
+     *
+     * @param x    the number, most significant digit first
+     * @param base the number base of the system
+     * @return floor(sqrt(x)), without leading zeros; 0 is [0]
+     */
+    public static int[] isqrt(final int[] x, final int base) {
+        return nonEmpty(root(DigitArithmetic.trimmed(x), 2, base));
+    } // method isqrt
+
+    public static int[] isqrt(final int[] x) {
+        return isqrt(x, DEFAULT_BASE);
+    } // method isqrt
+
+    /**
+     * Computes the integer k-th root.
+     *
+     * @param x    the number, most significant digit first
+     * @param k    the degree of the root; at least 1
+     * @param base the number base of the system
+     * @return floor(x^(1/k)), without leading zeros; 0 is [0]
+     */
+    public static int[] iroot(final int[] x, final int k, final int base) {
+        if (k < 1) {
+            throw new ArithmeticException("Root of degree " + k);
+        }
+        return nonEmpty(root(DigitArithmetic.trimmed(x), k, base));
+    } // method iroot
+
+    public static int[] iroot(final int[] x, final int k) {
+        return iroot(x, k, DEFAULT_BASE);
+    } // method iroot
+
+    /** floor(n^(1/k)) of a trimmed n, trimmed */
+    private static int[] root(final int[] n, final int k, final int base) {
+        if (k == 1 || n.length == 0) {
+            return n;
+        }
+        int rootDigits = (n.length + k - 1) / k;
+        return (rootDigits <= INVERSE_ROOT_CUTOFF) ? newtonRoot(n, k, base) : inverseRoot(n, k, base);
+    } // method root
+
+    /**
+     * floor(n^(1/k)) of a trimmed n, by Newton's iteration for the root. The
+     * starting value comes from the root of the leading digits of n: without its
+     * last k*h digits, n has a root without the last h digits of the root of n.
+     * Add 1 and append h zeros, and we have a value just above the root, correct
+     * to about half its digits, so that a step or two of full size finish the
+     * job.
+     */
+    private static int[] newtonRoot(final int[] n, final int k, final int base) {
+        int rootDigits = (n.length + k - 1) / k;
+        int h = rootDigits / 2 - 2;
+        if (n.length <= NEWTON_CUTOFF || h < 1) {
+            return newton(n, k, Division.powerOfBase(rootDigits), base);
+        }
+        int[] leadingRoot = newtonRoot(Arrays.copyOfRange(n, 0, n.length - k * h), k, base);
+        int[] r = shiftedLeft(DigitArithmetic.trimmed(DigitArithmetic.add(leadingRoot, new int[] { 1 }, base)), h);
+        return newton(n, k, r, base);
+    } // method newtonRoot
+
+    /**
+     * Newton's iteration for the k-th root from a start at or above the root. It
+     * stops as soon as a step no longer goes down.
+     *
+     * @return floor(n^(1/k)), trimmed
+     */
+    private static int[] newton(final int[] n, final int k, int[] r, final int base) {
+        int[] kDigits = DigitArithmetic.fromLong(k, base);
+        int[] kLessOne = DigitArithmetic.fromLong(k - 1L, base);
+        while (true) {
+            int[] power = Exponentiation.pow(r, k - 1L, base);
+            int[] sum = DigitArithmetic.add(GradeSchoolMultiplication_Solution.multiply(r, kLessOne, base),
+                    Division.divide(n, power, base), base);
+            int[] next = Division.divide(sum, kDigits, base);
+            if (DigitArithmetic.compare(next, r) >= 0) {
+                return r;
+            }
+            r = next;
+        }
+    } // method newton
+
+    /**
+     * floor(n^(1/k)) of a trimmed n, by Newton's iteration for the inverse root.
+     *
+     * The root has m = ceil(len/k) digits; think of n as a number of km digits,
+     * with leading zeros if needed, and let n_p be its leading kp digits (n
+     * followed by zeros for p > m). We compute, for growing precisions p, an
+     * integer y_p close to base^(2p) / n_p^(1/k), which lies between base^p and
+     * base^(p+1). The precisions go up to m plus guard digits, so that n *
+     * y^(k-1) gives the root to within a unit or two.
+     */
+    private static int[] inverseRoot(final int[] n, final int k, final int base) {
+        int m = (n.length + k - 1) / k;
+        int width = k * m;
+        int guard = guardDigits(k, base);
+        // Precisions from the last one down: every step doubles the correct digits
+        // but loses a few to rounding, so the step from p goes to 2p - guard
+        int last = m + 2 * guard;
+        Deque<Integer> precisions = new ArrayDeque<>();
+        int lowest = Math.max(NEWTON_CUTOFF, 4 * guard);
+        for (int p = last; ; p = (p + guard + 1) / 2) {
+            precisions.push(p);
+            if (p <= lowest) {
+                break;
+            }
+        }
+        // Start: y_p = floor((base^(2pk) / n_p)^(1/k)), by the division-based method
+        int p = precisions.pop();
+        int[] y = newtonRoot(Division.divide(Division.powerOfBase(2 * p * k), leading(n, width, k * p), base), k,
+                base);
+        while (!precisions.isEmpty()) {
+            int q = precisions.pop();
+            y = newtonStep(n, width, k, y, p, q, base);
+            p = q;
+        }
+        // n^(1/k) = n * (base^(p+m) / y_p)^(-(k-1)) = n * y_p^(k-1) / base^((k-1)(p+m)).
+        // Digits of n and y^(k-1) that only reach below the units are dropped.
+        int[] lower = Exponentiation.pow(y, k - 1L, base);
+        int dropN = Math.max(0, (k - 1) * (m - 1) - guard);
+        int dropLower = Math.max(0, (k - 1) * p - m - guard);
+        int[] r = shiftedRight(GradeSchoolMultiplication_Solution.multiply(shiftedRight(n, dropN),
+                shiftedRight(lower, dropLower), base), (k - 1) * (p + m) - dropN - dropLower);
+        return corrected(n, k, r, base);
+    } // method inverseRoot
+
+    /**
+     * One step of Newton's iteration for the inverse root, from y_p to y_q with q
+     * at most 2p - guard. With y = y_p * base^(q-p) as the start, the step is
+     *
+     * y_q = y + y * (base^(2qk) - n_q * y^k) / (k * base^(2qk))
+     *     = y_p * base^(q-p) + y_p * (base^(k(q+p)) - n_q * y_p^k) / (k * base^(k(q+p) - (q-p)))
+     *
+     * Only the digits that reach the units of y_q matter, so n_q and y_p^k are cut
+     * to about q digits each before they are multiplied, and the difference to
+     * about p digits.
+     */
+    private static int[] newtonStep(final int[] n, final int width, final int k, final int[] y, final int p,
+            final int q, final int base) {
+        int dropN = (k - 1) * q - k - 2;
+        int dropPower = Math.max(0, k * p - q - 2);
+        int[] product = DigitArithmetic.trimmed(GradeSchoolMultiplication_Solution.multiply(
+                leading(n, width, k * q - dropN), shiftedRight(Exponentiation.pow(y, k, base), dropPower), base));
+        int[] one = Division.powerOfBase(k * (q + p) - dropN - dropPower);
+        int[] start = shiftedLeft(y, q - p);
+        int sign = DigitArithmetic.compare(one, product);
+        if (sign == 0) {
+            return start;
+        }
+        int[] error = (sign > 0) ? difference(one, product, base) : difference(product, one, base);
+        int exponent = k * (q + p) - (q - p) - dropN - dropPower;
+        int dropError = Math.max(0, exponent - p - 2);
+        error = shiftedRight(error, dropError);
+        if (error.length == 0) {
+            return start;
+        }
+        int[] correction = Division.divide(shiftedRight(GradeSchoolMultiplication_Solution.multiply(y, error, base),
+                exponent - dropError), DigitArithmetic.fromLong(k, base), base);
+        return (sign > 0) ? DigitArithmetic.trimmed(DigitArithmetic.add(start, correction, base))
+                : difference(start, correction, base);
+    } // method newtonStep
+
+    /**
+     * Turns an estimate r of floor(n^(1/k)) that is off by a unit or two into the
+     * exact value. r is right when r^k <= n < (r+1)^k. The upper bound holds for
+     * sure when n - r^k < k * r^(k-1), which needs no further power; otherwise
+     * (r+1)^k decides.
+     */
+    private static int[] corrected(final int[] n, final int k, int[] r, final int base) {
+        int[] one = { 1 };
+        int[] kDigits = DigitArithmetic.fromLong(k, base);
+        while (true) {
+            int[] lower = Exponentiation.pow(r, k - 1L, base);
+            int[] power = DigitArithmetic.trimmed((k == 2)
+                    ? GradeSchoolMultiplication_Solution.square(r, base,
+                            MultiplicationEngine.fastest(r.length, r.length, base))
+                    : GradeSchoolMultiplication_Solution.multiply(lower, r, base));
+            if (DigitArithmetic.compare(power, n) > 0) {
+                r = difference(r, one, base);
+                continue;
+            }
+            int[] slack = DigitArithmetic.trimmed(GradeSchoolMultiplication_Solution.multiply(lower, kDigits, base));
+            if (DigitArithmetic.compare(difference(n, power, base), slack) < 0) {
+                return r;
+            }
+            int[] next = DigitArithmetic.trimmed(DigitArithmetic.add(r, one, base));
+            if (DigitArithmetic.compare(Exponentiation.pow(next, k, base), n) > 0) {
+                return r;
+            }
+            r = next;
+        }
+    } // method corrected
+
+    /**
+     * Guard digits for the inverse root: the smallest g with base^(g-1) >= 64k.
+     * With them, the rounding errors of a step and the error left over from the
+     * step before stay below a few units.
+     */
+    private static int guardDigits(final int k, final int base) {
+        int guard = 1;
+        for (long power = 1; power < 64L * k; power *= base) {
+            guard++;
+        }
+        return guard;
+    } // method guardDigits
+
+    /**
+     * The leading count digits of n, a trimmed number thought of as width digits
+     * with leading zeros; n followed by zeros if count exceeds width.
+     */
+    private static int[] leading(final int[] n, final int width, final int count) {
+        int zeros = width - n.length;
+        if (count <= zeros) {
+            return new int[0];
+        }
+        return DigitArithmetic.trimmed(Arrays.copyOf(n, count - zeros));
+    } // method leading
+
+    /** a - b for trimmed a >= b, trimmed */
+    private static int[] difference(final int[] a, final int[] b, final int base) {
+        int[] result = a.clone();
+        DigitArithmetic.subtractShifted(result, b, 0, base);
+        return DigitArithmetic.trimmed(result);
+    } // method difference
+
+    /** floor(x / base^shift), trimmed */
+    private static int[] shiftedRight(final int[] x, final int shift) {
+        return DigitArithmetic.trimmed(Arrays.copyOfRange(x, 0, Math.max(0, x.length - shift)));
+    } // method shiftedRight
+
+    /** x * base^shift */
+    private static int[] shiftedLeft(final int[] x, final int shift) {
+        return Arrays.copyOf(x, x.length + shift);
+    } // method shiftedLeft
+
+    private static int[] nonEmpty(final int[] x) {
+        return (x.length == 0) ? new int[1] : x;
+    } // method nonEmpty
+
+    public static void main(String[] args) {
+        int[] x = { 7, 0, 0, 6, 6, 5, 2 };
+        System.out.println(Arrays.toString(isqrt(x)) + " " + Arrays.toString(iroot(x, 3)));
+    } // method main
+} // class IntegerRoots
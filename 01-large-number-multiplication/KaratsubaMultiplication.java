@@ -0,0 +1,182 @@
+import java.util.Arrays; // for toString() and copyOfRange()
+
+/**
+ * Karatsuba multiplication of integers represented as arrays of single digits.
+ * The arrays follow the same contract as GradeSchoolMultiplication_Solution:
+ * most significant digit first, and the product comes back with x.length +
+ * y.length digits, minus a leading 0 if there is one.
+ *
+ * The grade school method multiplies every digit of x with every digit of y,
+ * i.e., it performs n*n single-digit multiplications for two n-digit numbers.
+ * Karatsuba splits each number in a high and a low half,
+ *
+ * x = xHigh * base^half + xLow
+ * y = yHigh * base^half + yLow
+ *
+ * and observes that the product needs only three half-size products:
+ *
+ * high = xHigh * yHigh
+ * low = xLow * yLow
+ * middle = (xHigh + xLow) * (yHigh + yLow) - high - low
+ *
+ * x * y = high * base^(2*half) + middle * base^half + low
+ *
+ * Applied recursively, the work drops from n^2 to about n^1.585 single-digit
+ * multiplications. Recursion carries some overhead (new arrays, additions), so
+ * below a cutoff size the method switches back to the grade school loop.
+ */
+public class KaratsubaMultiplication {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Operand size (in digits) at or below which we use the grade school loop */
+    public static final int DEFAULT_CUTOFF = 40;
+
+    /**
+     * Smallest usable cutoff. Splitting a 3-digit number produces a 2-digit half
+     * whose sum with the other half has 3 digits again, so the recursion would
+     * never reach its base case.
+     */
+    static final int MIN_CUTOFF = 3;
+
+    /**
+     * Multiplies two integers represented as arrays using Karatsuba's method.
+     *
+     * @param x      one of the two arrays with the integers to multiply
+     * @param y      the other array with the integer to multiply
+     * @param base   the number base of the system
+     * @param cutoff operands with this many digits or fewer are multiplied with
+     *               the grade school loop; values below 3 are raised to 3
+     * @return the product of the two numbers, in the same form as
+     *         GradeSchoolMultiplication_Solution.multiply returns it
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base, int cutoff) {
+        // If one of the input arrays has 0 length, return [0] like the grade school method
+        if (x.length == 0 || y.length == 0) {
+            return new int[1];
+        }
+        cutoff = (cutoff >= MIN_CUTOFF) ? cutoff : MIN_CUTOFF;
+        // Give both operands the same number of digits, so that they split evenly
+        int length = Math.max(x.length, y.length);
+        int[] product = product(DigitArithmetic.padded(x, length), DigitArithmetic.padded(y, length), base, cutoff);
+        return DigitArithmetic.toProductShape(product, x.length, y.length);
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y, final int base) {
+        return multiply(x, y, base, DEFAULT_CUTOFF);
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y) {
+        return multiply(x, y, DEFAULT_BASE, DEFAULT_CUTOFF);
+    } // method multiply
+
+    /**
+     * Squares an integer represented as an array using Karatsuba's method. The
+     * three half-size products are squares too, so the recursion stays with
+     * squares all the way down to the grade school squaring loop.
+     *
+     * @param x      the array with the integer to square
+     * @param base   the number base of the system
+     * @param cutoff operands with this many digits or fewer are squared with the
+     *               grade school loop; values below 3 are raised to 3
+     * @return the square, in the same form as multiply(x, x, base) returns it
+     */
+    public static int[] square(final int[] x, final int base, int cutoff) {
+        if (x.length == 0) {
+            return new int[1];
+        }
+        cutoff = (cutoff >= MIN_CUTOFF) ? cutoff : MIN_CUTOFF;
+        return DigitArithmetic.toProductShape(squareProduct(x, base, cutoff), x.length, x.length);
+    } // method square
+
+    public static int[] square(final int[] x, final int base) {
+        return square(x, base, DEFAULT_CUTOFF);
+    } // method square
+
+    /**
+     * Recursive step of Karatsuba's method. Both operands must have the same
+     * number of digits n, and the product is returned with exactly 2n digits,
+     * leading zeros included. Keeping the lengths fixed lets the caller place the
+     * three partial products without having to measure them.
+     *
+     * @param x      first operand, n digits
+     * @param y      second operand, n digits
+     * @param base   number system base
+     * @param cutoff size at or below which we use the grade school loop
+     * @return x * y in an array of 2n digits
+     */
+    static int[] product(final int[] x, final int[] y, final int base, final int cutoff) {
+        int n = x.length;
+        // Small operands: the grade school loop is faster than more recursion
+        if (n <= cutoff) {
+            return DigitArithmetic.padded(ColumnSumMultiplication.multiply(x, y, base), 2 * n);
+        }
+        // Split every operand into a high part and a low part of half digits. The
+        // high part gets the extra digit when n is odd.
+        int half = n / 2;
+        int highLength = n - half;
+        int[] xHigh = Arrays.copyOfRange(x, 0, highLength);
+        int[] xLow = Arrays.copyOfRange(x, highLength, n);
+        int[] yHigh = Arrays.copyOfRange(y, 0, highLength);
+        int[] yLow = Arrays.copyOfRange(y, highLength, n);
+        // The three half-size products
+        int[] high = product(xHigh, yHigh, base, cutoff);
+        int[] low = product(DigitArithmetic.padded(xLow, highLength), DigitArithmetic.padded(yLow, highLength), base,
+                cutoff);
+        int[] middle = product(DigitArithmetic.add(xHigh, xLow, base), DigitArithmetic.add(yHigh, yLow, base), base,
+                cutoff);
+        return combine(high, low, middle, n, base);
+    } // method product
+
+    /**
+     * Recursive step of Karatsuba squaring; same as product(x, x, base, cutoff)
+     * with half-size squares instead of half-size products.
+     *
+     * @return x * x in an array of 2n digits
+     */
+    static int[] squareProduct(final int[] x, final int base, final int cutoff) {
+        int n = x.length;
+        if (n <= cutoff) {
+            return DigitArithmetic.padded(GradeSchoolMultiplication_Solution.square(x, base), 2 * n);
+        }
+        int half = n / 2;
+        int highLength = n - half;
+        int[] xHigh = Arrays.copyOfRange(x, 0, highLength);
+        int[] xLow = Arrays.copyOfRange(x, highLength, n);
+        int[] high = squareProduct(xHigh, base, cutoff);
+        int[] low = squareProduct(DigitArithmetic.padded(xLow, highLength), base, cutoff);
+        int[] middle = squareProduct(DigitArithmetic.add(xHigh, xLow, base), base, cutoff);
+        return combine(high, low, middle, n, base);
+    } // method squareProduct
+
+    /**
+     * Assembles the product of two n-digit numbers from the three half-size
+     * products of Karatsuba's method. The middle array is overwritten.
+     *
+     * @param high   xHigh * yHigh
+     * @param low    xLow * yLow
+     * @param middle (xHigh + xLow) * (yHigh + yLow)
+     * @param n      number of digits in each operand
+     * @param base   number system base
+     * @return the product in an array of 2n digits
+     */
+    static int[] combine(final int[] high, final int[] low, int[] middle, final int n, final int base) {
+        int half = n / 2;
+        // middle = (xHigh + xLow) * (yHigh + yLow) - high - low = xHigh*yLow + xLow*yHigh
+        DigitArithmetic.subtractShifted(middle, high, 0, base);
+        DigitArithmetic.subtractShifted(middle, low, 0, base);
+        // Assemble high * base^(2*half) + middle * base^half + low
+        int[] result = new int[2 * n];
+        DigitArithmetic.addShifted(result, low, 0, base);
+        DigitArithmetic.addShifted(result, middle, half, base);
+        DigitArithmetic.addShifted(result, high, 2 * half, base);
+        return result;
+    } // method combine
+
+    public static void main(String[] args) {
+        int[] x = { 1, 2, 3, 4 };
+        int[] y = { 5, 6, 7, 8 };
+        int[] z = multiply(x, y);
+        System.out.println(Arrays.toString(z));
+    } // method main
+} // class KaratsubaMultiplication
@@ -0,0 +1,308 @@
+import java.util.Arrays; // for toString() and copyOfRange()
+
+/**
+ * Modular multiplication and exponentiation, (x * y) mod m and x^e mod m, for
+ * integers represented as arrays of single digits, most significant first, as
+ * in GradeSchoolMultiplication_Solution.
+ *
+ * The obvious way computes the full product and divides it by m, and the
+ * division costs more than the product. Montgomery's method replaces the
+ * division by m with a division by R = base^k, where k is the number of digits
+ * of m -- which is just dropping the last k digits. It works on numbers in
+ * Montgomery form, a' = a * R mod m, and its reduction step (REDC) computes
+ * T * R^-1 mod m for any T < m * R:
+ *
+ * u = (T mod R) * m' mod R,   where m' = -m^-1 mod R
+ * t = (T + u * m) / R         (exact: T + u * m is a multiple of R)
+ * result = t, or t - m if t >= m
+ *
+ * The product of two numbers in Montgomery form, a' * b' = a * b * R^2, reduces
+ * to a * b * R, again in Montgomery form. So a chain of products, such as an
+ * exponentiation, converts once at the start and once at the end, and in
+ * between each step costs three multiplications on the fast multiplier (a'*b',
+ * then the two in REDC) and no division at all.
+ *
+ * The modulus must not share a factor with the base, since m^-1 mod R must
+ * exist; in base 10 that means m is neither even nor a multiple of 5. Building
+ * a context computes m', R mod m and R^2 mod m once; a context is immutable
+ * and can be shared between calls and threads.
+ */
+public class MontgomeryContext {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Window of exponent bits handled per multiplication in pow */
+    private static final int WINDOW_BITS = 4;
+
+    private final int base;
+
+    /** m, without leading zeros */
+    private final int[] modulus;
+
+    /** k, the number of digits of m; R = base^k */
+    private final int k;
+
+    /** m' = -m^-1 mod R, k digits */
+    private final int[] negativeInverse;
+
+    /** R^2 mod m, for converting into Montgomery form */
+    private final int[] rSquared;
+
+    /** R mod m, the number 1 in Montgomery form */
+    private final int[] one;
+
+    /**
+     * Prepares modular arithmetic for a modulus.
+     *
+     * @param modulus the modulus m, most significant digit first; m >= 1 and m
+     *                must not share a factor with the base
+     * @param base    the number base of the system
+     */
+    public MontgomeryContext(final int[] modulus, final int base) {
+        this.base = base;
+        this.modulus = DigitArithmetic.trimmed(modulus);
+        if (this.modulus.length == 0) {
+            throw new ArithmeticException("Modulus is zero");
+        }
+        this.k = this.modulus.length;
+        int lastDigit = this.modulus[this.k - 1];
+        if (gcd(lastDigit, base) != 1) {
+            throw new IllegalArgumentException("Modulus shares a factor with base " + base);
+        }
+        this.negativeInverse = negated(inverse(lastDigit), this.k);
+        this.one = powerOfBase(this.k);
+        this.rSquared = powerOfBase(2 * this.k);
+    } // constructor
+
+    public MontgomeryContext(final int[] modulus) {
+        this(modulus, DEFAULT_BASE);
+    } // constructor
+
+    /**
+     * Computes (x * y) mod m.
+     *
+     * This is a convenience for a single product, not a fast path. Converting x
+     * into Montgomery form takes a product and a reduction, and the product x' * y
+     * another product and a reduction; with two multiplications per reduction,
+     * that is about six products of the size of m. The full product followed by
+     * Division.remainder costs less. Montgomery's method pays off for chains of
+     * products: convert the operands once with toMontgomery, combine them with
+     * multiplyMontgomery and squareMontgomery (three products each), and convert
+     * the result back with fromMontgomery, as pow does.
+     *
+     * @param x one factor, at most as many digits as m
+     * @param y other factor, at most as many digits as m
+     * @return the remainder, without leading zeros; 0 is [0]
+     */
+    public int[] multiply(final int[] x, final int[] y) {
+        // x' * y = x * y * R, whose reduction is x * y mod m
+        int[] product = GradeSchoolMultiplication_Solution.multiply(toMontgomery(x), checked(y), this.base);
+        return nonEmpty(reduce(product));
+    } // method multiply
+
+    /**
+     * Computes x^exponent mod m.
+     *
+     * @param x        the number to raise, at most as many digits as m
+     * @param exponent the power, in the same base as x; must not be negative
+     * @return the remainder, without leading zeros; x^0 mod m is [1] unless m = 1
+     */
+    public int[] pow(final int[] x, final int[] exponent) {
+        return powBits(toMontgomery(x), RadixConversion.toBinaryLimbs(exponent, this.base));
+    } // method pow
+
+    public int[] pow(final int[] x, final long exponent) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Negative exponent: " + exponent);
+        }
+        int[] limbs = { (int) exponent, (int) (exponent >>> 32) };
+        return powBits(toMontgomery(x), limbs);
+    } // method pow
+
+    /**
+     * Converts a number into Montgomery form, x * R mod m.
+     *
+     * @param x a number with at most as many digits as m
+     * @return x * R mod m, without leading zeros
+     */
+    public int[] toMontgomery(final int[] x) {
+        // x < R and R^2 mod m < m, so the product is below m * R
+        return reduce(GradeSchoolMultiplication_Solution.multiply(checked(x), this.rSquared, this.base));
+    } // method toMontgomery
+
+    /**
+     * Converts a number out of Montgomery form.
+     *
+     * @param xMontgomery x * R mod m
+     * @return x mod m, without leading zeros; 0 is [0]
+     */
+    public int[] fromMontgomery(final int[] xMontgomery) {
+        return nonEmpty(reduce(DigitArithmetic.trimmed(xMontgomery)));
+    } // method fromMontgomery
+
+    /**
+     * Multiplies two numbers in Montgomery form.
+     *
+     * @param xMontgomery x * R mod m
+     * @param yMontgomery y * R mod m
+     * @return x * y * R mod m, the product in Montgomery form
+     */
+    public int[] multiplyMontgomery(final int[] xMontgomery, final int[] yMontgomery) {
+        return reduce(GradeSchoolMultiplication_Solution.multiply(xMontgomery, yMontgomery, this.base));
+    } // method multiplyMontgomery
+
+    /** Squares a number in Montgomery form; same as multiplyMontgomery(x, x) */
+    public int[] squareMontgomery(final int[] xMontgomery) {
+        int[] square = GradeSchoolMultiplication_Solution.square(xMontgomery, this.base,
+                MultiplicationEngine.fastest(xMontgomery.length, xMontgomery.length, this.base));
+        return reduce(square);
+    } // method squareMontgomery
+
+    /** @return a copy of the modulus, without leading zeros */
+    public int[] modulus() {
+        return this.modulus.clone();
+    } // method modulus
+
+    /**
+     * Left-to-right exponentiation with a fixed window: the exponent is read
+     * WINDOW_BITS bits at a time, each window costing WINDOW_BITS squares and
+     * one multiplication by a precomputed power x^0 .. x^15.
+     *
+     * @param xMontgomery x in Montgomery form
+     * @param limbs       the exponent in unsigned 32-bit limbs, least significant first
+     * @return x^exponent mod m, out of Montgomery form
+     */
+    private int[] powBits(final int[] xMontgomery, final int[] limbs) {
+        int[][] powers = new int[1 << WINDOW_BITS][];
+        powers[0] = this.one;
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = multiplyMontgomery(powers[i - 1], xMontgomery);
+        }
+        int[] result = this.one;
+        int topBit = limbs.length * 32;
+        // Round the number of bits up to whole windows
+        topBit += (WINDOW_BITS - topBit % WINDOW_BITS) % WINDOW_BITS;
+        boolean started = false;
+        for (int bit = topBit - WINDOW_BITS; bit >= 0; bit -= WINDOW_BITS) {
+            int window = 0;
+            for (int b = bit + WINDOW_BITS - 1; b >= bit; b--) {
+                window = (window << 1) | bitOf(limbs, b);
+            }
+            // Squaring the number 1 would be wasted work; skip until the first nonzero window
+            if (started) {
+                for (int s = 0; s < WINDOW_BITS; s++) {
+                    result = squareMontgomery(result);
+                }
+            }
+            if (window != 0) {
+                result = started ? multiplyMontgomery(result, powers[window]) : powers[window];
+                started = true;
+            }
+        }
+        return fromMontgomery(result);
+    } // method powBits
+
+    /**
+     * Montgomery reduction (REDC): t * R^-1 mod m.
+     *
+     * @param t a number below m * R
+     * @return t * R^-1 mod m, without leading zeros
+     */
+    private int[] reduce(final int[] t) {
+        int[] u = lowDigits(GradeSchoolMultiplication_Solution.multiply(lowDigits(t, this.k), this.negativeInverse,
+                this.base), this.k);
+        int[] sum = DigitArithmetic.add(t, GradeSchoolMultiplication_Solution.multiply(u, this.modulus, this.base),
+                this.base);
+        // The last k digits of the sum are 0; dividing by R drops them
+        int[] result = DigitArithmetic.trimmed(Arrays.copyOfRange(sum, 0, sum.length - this.k));
+        if (DigitArithmetic.compare(result, this.modulus) >= 0) {
+            DigitArithmetic.subtractShifted(result, this.modulus, 0, this.base);
+            result = DigitArithmetic.trimmed(result);
+        }
+        return result;
+    } // method reduce
+
+    /**
+     * Computes m^-1 mod R with Newton's iteration for inverses, which for an
+     * inverse modulo a power of the base is exact and doubles the number of
+     * correct digits per step (Hensel lifting):
+     *
+     * inverse = inverse * (2 - m * inverse) mod base^digits
+     *
+     * @param lastDigit the last digit of m
+     * @return m^-1 mod R, k digits
+     */
+    private int[] inverse(final int lastDigit) {
+        // One digit to start with: the inverse of the last digit of m modulo base
+        int start = 1;
+        while ((long) lastDigit * start % this.base != 1 % this.base) {
+            start++;
+        }
+        int[] inverse = { start };
+        for (int digits = 1; digits < this.k; ) {
+            digits = Math.min(2 * digits, this.k);
+            int[] product = lowDigits(GradeSchoolMultiplication_Solution.multiply(lowDigits(this.modulus, digits),
+                    inverse, this.base), digits);
+            // 2 - product, modulo base^digits
+            int[] correction = negated(product, digits);
+            DigitArithmetic.addShifted(correction, new int[] { 2 }, 0, this.base);
+            inverse = lowDigits(GradeSchoolMultiplication_Solution.multiply(inverse, correction, this.base), digits);
+        }
+        return lowDigits(inverse, this.k);
+    } // method inverse
+
+    /** @return base^exponent mod m, without leading zeros */
+    private int[] powerOfBase(final int exponent) {
+        return Division.quotientAndRemainder(Division.powerOfBase(exponent), this.modulus, this.base)[1];
+    } // method powerOfBase
+
+    /** (base^digits - x) mod base^digits, for x with exactly that many digits */
+    private int[] negated(final int[] x, final int digits) {
+        int[] result = new int[digits];
+        for (int i = 0; i < digits; i++) {
+            result[i] = this.base - 1 - x[i];
+        }
+        DigitArithmetic.addShifted(result, new int[] { 1 }, 0, this.base);
+        return result;
+    } // method negated
+
+    /** x mod base^digits, as exactly that many digits */
+    private static int[] lowDigits(final int[] x, final int digits) {
+        if (x.length >= digits) {
+            return Arrays.copyOfRange(x, x.length - digits, x.length);
+        }
+        return DigitArithmetic.padded(x, digits);
+    } // method lowDigits
+
+    /** Trims a factor and makes sure it has no more digits than m */
+    private int[] checked(final int[] x) {
+        int[] trimmed = DigitArithmetic.trimmed(x);
+        if (trimmed.length > this.k) {
+            throw new IllegalArgumentException("Operand has " + trimmed.length + " digits, modulus only " + this.k);
+        }
+        return trimmed;
+    } // method checked
+
+    private static int[] nonEmpty(final int[] x) {
+        return (x.length == 0) ? new int[1] : x;
+    } // method nonEmpty
+
+    private static int bitOf(final int[] limbs, final int bit) {
+        return (bit / 32 < limbs.length) ? (limbs[bit / 32] >>> (bit % 32)) & 1 : 0;
+    } // method bitOf
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    } // method gcd
+
+    public static void main(String[] args) {
+        // 4077^1000 mod 9999991
+        MontgomeryContext context = new MontgomeryContext(new int[] { 9, 9, 9, 9, 9, 9, 1 });
+        System.out.println(Arrays.toString(context.pow(new int[] { 4, 0, 7, 7 }, 1000)));
+    } // method main
+} // class MontgomeryContext
@@ -0,0 +1,46 @@
+/**
+ * The algorithms available for multiplying integers represented as arrays of
+ * single digits. Every engine takes and returns arrays in the form used by
+ * GradeSchoolMultiplication_Solution.multiply, so that the choice of engine
+ * affects only speed and memory, never the result. Pick one per call with
+ *
+ * GradeSchoolMultiplication_Solution.multiply(x, y, base, engine)
+ *
+ * Roughly, by the number of decimal digits in the operands: SCHOOLBOOK for a
+ * dozen digits or so, PACKED (the grade school method on several digits per
+ * int) up to a couple of thousand, NTT beyond. KARATSUBA and TOOM3 keep one
+ * digit per int; they are much faster than SCHOOLBOOK but still slower than
+ * PACKED on most machines. PARALLEL runs Karatsuba's method on all cores.
+ *
+ * GradeSchoolMultiplication_Solution.multiply(x, y, base) and code that
+ * multiplies numbers of changing sizes, e.g., Exponentiation.pow, let
+ * fastest(xLength, yLength, base) choose. Its size limits come from
+ * MultiplicationTuning and can be calibrated for the machine at hand.
+ */
+public enum MultiplicationEngine {
+    /** Grade school method, one digit per int, see ColumnSumMultiplication */
+    SCHOOLBOOK,
+    /** Karatsuba's method, see KaratsubaMultiplication */
+    KARATSUBA,
+    /** Toom-Cook 3-way method, see ToomCookMultiplication */
+    TOOM3,
+    /** Number theoretic transform, see NttMultiplication */
+    NTT,
+    /** Grade school method on packed limbs, see PackedNumber */
+    PACKED,
+    /** Karatsuba's method on a fork/join pool, see ParallelMultiplication */
+    PARALLEL;
+
+    /**
+     * Picks the single-threaded engine that is fastest for operands of the given
+     * sizes, according to the current MultiplicationTuning.
+     *
+     * @param xLength number of digits in one operand
+     * @param yLength number of digits in the other operand
+     * @param base    the number base of the operands
+     * @return the engine to use
+     */
+    public static MultiplicationEngine fastest(final int xLength, final int yLength, final int base) {
+        return MultiplicationTuning.current(base).select(xLength, yLength);
+    } // method fastest
+} // enum MultiplicationEngine
@@ -0,0 +1,352 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size limits that decide which engine multiplies a pair of operands. The
+ * engines form a ladder, from the best for small operands to the best for huge
+ * ones:
+ *
+ * SCHOOLBOOK -> PACKED -> KARATSUBA -> TOOM3 -> NTT
+ *
+ * Every rung except the last has a limit: an engine is used when the shorter
+ * operand has at most that many digits and no lower rung took it. A rung whose
+ * limit equals the one below it is skipped altogether.
+ *
+ * The limits count digits, so they depend on the number base: a digit in base
+ * 10000 holds four times the bits of a decimal digit, and the engines overtake
+ * each other at about a quarter of the digits. Every base has its own tuning.
+ *
+ * Where one engine overtakes another also depends on the processor, its
+ * caches, and the JVM, so fixed limits are wrong on many machines. Running this
+ * class
+ *
+ * java MultiplicationTuning [base]
+ *
+ * times the engines on the current machine and writes the measured limits for
+ * that base (default 10) to a tuning file, multiplication-tuning.properties in
+ * the working directory (or the path in the system property
+ * multiplication.tuning). Limits for other bases already in the file are kept.
+ * The file is read once per base, the first time a limit for that base is
+ * needed; a base without limits in the file gets the built-in defaults.
+ */
+public class MultiplicationTuning {
+
+    /** System property with the path of the tuning file */
+    public static final String FILE_PROPERTY = "multiplication.tuning";
+
+    /** Tuning file used when the system property is not set */
+    public static final String DEFAULT_FILE = "multiplication-tuning.properties";
+
+    /** The engines to choose from, ordered from small to large operands */
+    static final MultiplicationEngine[] LADDER = { MultiplicationEngine.SCHOOLBOOK, MultiplicationEngine.PACKED,
+            MultiplicationEngine.KARATSUBA, MultiplicationEngine.TOOM3, MultiplicationEngine.NTT };
+
+    /** Base in which DEFAULT_LIMITS were measured */
+    private static final int DEFAULT_BASE = 10;
+
+    /**
+     * Limits measured in base 10 on a typical desktop machine; defaults(base)
+     * scales them to other bases. The rungs of KARATSUBA and TOOM3 are empty on
+     * purpose. Both store one digit per int, while PACKED multiplies nine decimal
+     * digits at a time: up to about 500 digits PACKED is faster, by a factor that
+     * shrinks from 10 to 2, and from about 1000 digits on NTT is. Calibration in
+     * base 10 and base 10000 found no size where either recursive engine won, so
+     * any default range for them would make multiplication slower. They stay on
+     * the ladder because calibration may find a range for them on other
+     * machines, and ParallelMultiplication builds on Karatsuba.
+     */
+    private static final int[] DEFAULT_LIMITS = { 10, 1500, 1500, 1500 };
+
+    /** Largest operand size timed during calibration */
+    private static final int MAX_CALIBRATION_DIGITS = 32768;
+
+    /** Minimum total time spent timing one engine at one size, in nanoseconds */
+    private static final long MIN_TIMING_NANOS = 20_000_000L;
+
+    /**
+     * During calibration, an engine this many times slower than a faster engine
+     * higher up the ladder is not timed on larger operands any more.
+     */
+    private static final int GIVE_UP_FACTOR = 4;
+
+    /** The tunings in effect, by base, each read from the tuning file on first use */
+    private static final Map<Integer, MultiplicationTuning> CURRENT = new ConcurrentHashMap<>();
+
+    /** Number base whose digits the limits count */
+    private final int base;
+
+    /** limits[k] is the largest shorter-operand size for LADDER[k] */
+    private final int[] limits;
+
+    /**
+     * Creates a tuning from limits for the first LADDER.length - 1 rungs.
+     *
+     * @param base   number base whose digits the limits count
+     * @param limits one limit per rung, except the last; not negative, and none
+     *               smaller than the limit of the rung below
+     * @throws IllegalArgumentException if a limit is negative or smaller than the
+     *                                  one below it
+     */
+    MultiplicationTuning(final int base, final int[] limits) {
+        if (limits.length != LADDER.length - 1) {
+            throw new IllegalArgumentException("Expected " + (LADDER.length - 1) + " limits, got " + limits.length);
+        }
+        for (int k = 0; k < limits.length; k++) {
+            if (limits[k] < 0) {
+                throw new IllegalArgumentException("Negative limit for " + LADDER[k] + ": " + limits[k]);
+            }
+            if (k > 0 && limits[k] < limits[k - 1]) {
+                throw new IllegalArgumentException("Limit for " + LADDER[k] + " (" + limits[k]
+                        + ") is below the limit for " + LADDER[k - 1] + " (" + limits[k - 1] + ")");
+            }
+        }
+        this.base = base;
+        this.limits = Arrays.copyOf(limits, limits.length);
+    } // constructor
+
+    /**
+     * The built-in limits, used for a base without limits in the tuning file.
+     * They were measured in base 10; for another base they are scaled by the
+     * bits per digit, so that they cover operands of about the same number of
+     * bits.
+     *
+     * @param base the number base
+     * @return the default tuning for that base
+     */
+    public static MultiplicationTuning defaults(final int base) {
+        double scale = Math.log(DEFAULT_BASE) / Math.log(base);
+        int[] limits = new int[DEFAULT_LIMITS.length];
+        for (int k = 0; k < limits.length; k++) {
+            limits[k] = (int) Math.round(DEFAULT_LIMITS[k] * scale);
+        }
+        return new MultiplicationTuning(base, limits);
+    } // method defaults
+
+    /**
+     * The tuning in effect for a base. The first call for a base reads the tuning
+     * file; later calls return the same object.
+     *
+     * @param base the number base
+     * @return the current tuning for that base
+     */
+    public static MultiplicationTuning current(final int base) {
+        MultiplicationTuning tuning = CURRENT.get(base);
+        // Every multiplication asks, so go through computeIfAbsent only when the
+        // file still has to be read
+        if (tuning == null) {
+            tuning = CURRENT.computeIfAbsent(base, b -> load(file(), b));
+        }
+        return tuning;
+    } // method current
+
+    /** @param tuning the tuning to use from now on for its base */
+    public static void setCurrent(final MultiplicationTuning tuning) {
+        CURRENT.put(tuning.base, tuning);
+    } // method setCurrent
+
+    /** @return the number base whose digits the limits count */
+    public int base() {
+        return this.base;
+    } // method base
+
+    /**
+     * Picks the engine for operands of the given sizes.
+     *
+     * @param xLength number of digits in one operand
+     * @param yLength number of digits in the other operand
+     * @return the engine on the lowest rung whose limit covers the shorter operand
+     */
+    public MultiplicationEngine select(final int xLength, final int yLength) {
+        int shorter = Math.min(xLength, yLength);
+        for (int k = 0; k < this.limits.length; k++) {
+            if (shorter <= this.limits[k]) {
+                return LADDER[k];
+            }
+        }
+        return LADDER[LADDER.length - 1];
+    } // method select
+
+    /**
+     * @param engine one of the engines in the ladder, except the last
+     * @return its limit, or -1 if the engine has no limit
+     */
+    public int limit(final MultiplicationEngine engine) {
+        for (int k = 0; k < this.limits.length; k++) {
+            if (LADDER[k] == engine) {
+                return this.limits[k];
+            }
+        }
+        return -1;
+    } // method limit
+
+    /** @return the path of the tuning file */
+    public static Path file() {
+        return Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+    } // method file
+
+    /**
+     * Reads the limits for a base from a tuning file. Missing limits keep their
+     * default for the base; a missing file gives the defaults. A file that cannot
+     * be read, or whose limits for the base are not numbers, are negative, or
+     * decrease up the ladder, is ignored with a warning on System.err.
+     *
+     * @param file path of the tuning file
+     * @param base the number base
+     * @return the tuning in the file for that base
+     */
+    public static MultiplicationTuning load(final Path file, final int base) {
+        MultiplicationTuning defaults = defaults(base);
+        if (!Files.isReadable(file)) {
+            return defaults;
+        }
+        int[] limits = Arrays.copyOf(defaults.limits, defaults.limits.length);
+        try {
+            Properties properties = read(file);
+            for (int k = 0; k < limits.length; k++) {
+                String value = properties.getProperty(key(base, LADDER[k]));
+                if (value != null) {
+                    limits[k] = Integer.parseInt(value.trim());
+                }
+            }
+            return new MultiplicationTuning(base, limits);
+        } catch (IOException | IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException, too
+            System.err.printf("Ignoring tuning file %s for base %d: %s%n", file, base, e.getMessage());
+            return defaults;
+        }
+    } // method load
+
+    /**
+     * Writes this tuning to a file, in the format load reads. Limits for other
+     * bases that the file already holds are kept.
+     *
+     * @param file path of the tuning file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(final Path file) throws IOException {
+        Properties properties = Files.isReadable(file) ? read(file) : new Properties();
+        for (int k = 0; k < this.limits.length; k++) {
+            properties.setProperty(key(this.base, LADDER[k]), Integer.toString(this.limits[k]));
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, "Multiplication engine limits per base, in digits of the shorter operand");
+        }
+    } // method save
+
+    private static Properties read(final Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    } // method read
+
+    /**
+     * Times every engine of the ladder on balanced operands of 8, 16, 32, ...
+     * digits and derives the limits from the fastest engine at each size. An
+     * engine's limit is the largest size where it, or an engine below it in the
+     * ladder, was fastest.
+     *
+     * @param base number system base of the operands to time
+     * @return the measured tuning
+     */
+    public static MultiplicationTuning calibrate(final int base) {
+        Random random = new Random(1);
+        boolean[] active = new boolean[LADDER.length];
+        Arrays.fill(active, true);
+        int[] limits = new int[LADDER.length - 1];
+        for (int digits = 8; digits <= MAX_CALIBRATION_DIGITS; digits *= 2) {
+            int[] x = randomOperand(digits, base, random);
+            int[] y = randomOperand(digits, base, random);
+            long[] nanos = new long[LADDER.length];
+            long best = Long.MAX_VALUE;
+            int winner = LADDER.length - 1;
+            for (int k = 0; k < LADDER.length; k++) {
+                if (active[k]) {
+                    nanos[k] = time(x, y, base, LADDER[k]);
+                    if (nanos[k] < best) {
+                        best = nanos[k];
+                        winner = k;
+                    }
+                }
+            }
+            // Every rung at or above the winner covers this size
+            for (int k = winner; k < limits.length; k++) {
+                limits[k] = digits;
+            }
+            // Stop timing engines that fell far behind an engine above them in the
+            // ladder. Engines higher up scale better, so the gap only grows.
+            for (int k = 0; k < winner; k++) {
+                if (active[k] && nanos[k] > GIVE_UP_FACTOR * best) {
+                    active[k] = false;
+                }
+            }
+            System.out.printf("%6d digits: fastest is %s%n", digits, LADDER[winner]);
+        }
+        return new MultiplicationTuning(base, limits);
+    } // method calibrate
+
+    /** Average time of one multiplication, after a warm-up, in nanoseconds */
+    private static long time(final int[] x, final int[] y, final int base, final MultiplicationEngine engine) {
+        // Warm up, so that the JIT compiler has done its work before we measure
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < MIN_TIMING_NANOS) {
+            GradeSchoolMultiplication_Solution.multiply(x, y, base, engine);
+        }
+        int runs = 0;
+        start = System.nanoTime();
+        long elapsed;
+        do {
+            GradeSchoolMultiplication_Solution.multiply(x, y, base, engine);
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_TIMING_NANOS);
+        return elapsed / runs;
+    } // method time
+
+    private static int[] randomOperand(final int digits, final int base, final Random random) {
+        int[] x = new int[digits];
+        for (int i = 0; i < digits; i++) {
+            x[i] = random.nextInt(base);
+        }
+        x[0] = 1 + random.nextInt(base - 1);
+        return x;
+    } // method randomOperand
+
+    /** Property name of a limit, e.g., base10.packed.limit */
+    private static String key(final int base, final MultiplicationEngine engine) {
+        return "base" + base + "." + engine.name().toLowerCase() + ".limit";
+    } // method key
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("base ").append(this.base).append(": ");
+        for (int k = 0; k < this.limits.length; k++) {
+            text.append(LADDER[k]).append(" <= ").append(this.limits[k]).append(", ");
+        }
+        return text.append("then ").append(LADDER[LADDER.length - 1]).toString();
+    } // method toString
+
+    /**
+     * Calibration mode: measures the limits on this machine and saves them to the
+     * tuning file. An optional argument gives the number base to time (default
+     * 10).
+     */
+    public static void main(String[] args) throws IOException {
+        int base = (args.length > 0) ? Integer.parseInt(args[0]) : 10;
+        MultiplicationTuning tuning = calibrate(base);
+        tuning.save(file());
+        setCurrent(tuning);
+        System.out.println(tuning);
+        System.out.println("Saved to " + file().toAbsolutePath());
+    } // method main
+} // class MultiplicationTuning
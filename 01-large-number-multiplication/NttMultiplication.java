@@ -0,0 +1,609 @@
+import java.lang.ref.WeakReference;
+import java.util.Arrays; // for toString()
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Multiplication of very large integers with the number theoretic transform
+ * (NTT). The arrays follow the same contract as
+ * GradeSchoolMultiplication_Solution: single digits, most significant first,
+ * and the product comes back with x.length + y.length digits, minus a leading 0
+ * if there is one.
+ *
+ * The grade school method computes column sums: column k of the product is the
+ * sum of all x[i]*y[j] with i + j = k. That list of column sums is called the
+ * convolution of x and y. A transform turns convolution into a cheap
+ * position-by-position product: transform both inputs, multiply the transforms
+ * entry by entry, and transform back. With a fast transform each step takes
+ * about n log n operations instead of n^2.
+ *
+ * The NTT is the fast Fourier transform done with whole numbers modulo a prime
+ * p, so there is no rounding error. Its results are only known modulo p,
+ * however, and a column sum can be larger than any single prime. We therefore
+ * run the transform for three primes and rebuild every column sum from its
+ * three remainders with the Chinese remainder theorem (CRT). As long as the
+ * column sums are below 2^62, the answer is exact.
+ *
+ * To shorten the transforms, several digits are grouped into one coefficient
+ * (e.g., five decimal digits per coefficient, base 10^5), as many as the 2^62
+ * bound on column sums allows.
+ *
+ * When one operand is multiplied with many partners, its forward transforms
+ * are the same every time. A caller can prepare(x, partnerLength, base) such an
+ * operand: from then on, multiply and square look it up by identity and reuse
+ * its cached transforms, so that a product needs only the partner's forward
+ * transforms and the inverse transforms, two thirds of the work. The grouping
+ * and the transform length still depend on the partner's length, exactly as
+ * for an unprepared product; the cache is keyed by operand, grouping and
+ * transform length, and partners that need another grouping or length add an
+ * entry of their own. It keeps the most recently used entries, up to a total
+ * transform length. A prepared array must not be modified.
+ */
+public class NttMultiplication {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** The three primes, each of the form c * 2^k + 1 so that long transforms exist */
+    private static final long[] PRIMES = { 2013265921L, 469762049L, 167772161L };
+
+    /** A primitive root (generator) for each prime */
+    private static final long[] GENERATORS = { 31, 3, 3 };
+
+    /** Longest transform all three primes support: 2^25 */
+    private static final int MAX_TRANSFORM_LENGTH = 1 << 25;
+
+    /** Column sums must stay below this value for the CRT step to be exact */
+    private static final long MAX_COLUMN_SUM = 1L << 62;
+
+    /**
+     * Transform coefficients the cache keeps by default, see setCacheCapacity:
+     * 2^23, i.e., about 200 MB
+     */
+    public static final long DEFAULT_CACHE_COEFFICIENTS = 1L << 23;
+
+    /**
+     * Operands passed to prepare, with their base. An int[] is equal only to
+     * itself, so this is an identity map; its keys are weak, and so are those of
+     * the transform cache, so that operands the caller drops without release
+     * can still be collected.
+     */
+    private static final Map<int[], Integer> PREPARED = new WeakHashMap<>();
+
+    /** Forward transforms of prepared operands; guards PREPARED too */
+    private static final TransformCache TRANSFORMS = new TransformCache(DEFAULT_CACHE_COEFFICIENTS);
+
+    /**
+     * Multiplies two integers represented as arrays using the number theoretic
+     * transform.
+     *
+     * @param x    one of the two arrays with the integers to multiply
+     * @param y    the other array with the integer to multiply
+     * @param base the number base of the system
+     * @return the product of the two numbers, in the same form as
+     *         GradeSchoolMultiplication_Solution.multiply returns it
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base) {
+        // If one of the input arrays has 0 length, return [0] like the grade school method
+        if (x.length == 0 || y.length == 0) {
+            return new int[1];
+        }
+        int[] prepared = preparedOperand(x, y, base);
+        if (prepared != null) {
+            int[] product = multiplyPrepared(prepared, (prepared == x) ? y : x, base);
+            return DigitArithmetic.toProductShape(product, x.length, y.length);
+        }
+        int digitsPerGroup = digitsPerGroup(x.length, y.length, base);
+        int groupBase = power(base, digitsPerGroup);
+        long[] xGroups = toGroups(x, base, digitsPerGroup);
+        long[] yGroups = toGroups(y, base, digitsPerGroup);
+        long[] columns = convolve(xGroups, yGroups);
+        int[] product = toDigits(columns, groupBase, base, digitsPerGroup, x.length + y.length);
+        return DigitArithmetic.toProductShape(product, x.length, y.length);
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y) {
+        return multiply(x, y, DEFAULT_BASE);
+    } // method multiply
+
+    /**
+     * Squares an integer represented as an array using the number theoretic
+     * transform. Only one forward transform per prime is needed instead of two,
+     * which saves a third of the transforms.
+     *
+     * @param x    the array with the integer to square
+     * @param base the number base of the system
+     * @return the square, in the same form as multiply(x, x, base) returns it
+     */
+    public static int[] square(final int[] x, final int base) {
+        if (x.length == 0) {
+            return new int[1];
+        }
+        if (preparedOperand(x, x, base) != null) {
+            return DigitArithmetic.toProductShape(multiplyPrepared(x, x, base), x.length, x.length);
+        }
+        int digitsPerGroup = digitsPerGroup(x.length, x.length, base);
+        int groupBase = power(base, digitsPerGroup);
+        long[] groups = toGroups(x, base, digitsPerGroup);
+        long[] columns = convolve(groups, groups);
+        int[] product = toDigits(columns, groupBase, base, digitsPerGroup, 2 * x.length);
+        return DigitArithmetic.toProductShape(product, x.length, x.length);
+    } // method square
+
+    /**
+     * Prepares an operand for repeated multiplication: computes the forward
+     * transforms for products with partners of partnerLength digits and caches
+     * them. Products with partners of other lengths cache their own transforms
+     * on first use. Until release(x), x must not be modified.
+     *
+     * @param x             the operand, most significant digit first
+     * @param partnerLength expected number of digits of the other operands
+     * @param base          the number base of the system
+     */
+    public static void prepare(final int[] x, final int partnerLength, final int base) {
+        if (x.length == 0) {
+            return;
+        }
+        synchronized (TRANSFORMS) {
+            PREPARED.put(x, base);
+        }
+        int partner = Math.max(1, partnerLength);
+        int digitsPerGroup = digitsPerGroup(x.length, partner, base);
+        int groups = (x.length + digitsPerGroup - 1) / digitsPerGroup;
+        int partnerGroups = (partner + digitsPerGroup - 1) / digitsPerGroup;
+        transforms(x, base, digitsPerGroup, transformLength(groups + partnerGroups - 1));
+    } // method prepare
+
+    /**
+     * Forgets a prepared operand and drops its cached transforms.
+     *
+     * @param x an operand passed to prepare earlier
+     */
+    public static void release(final int[] x) {
+        synchronized (TRANSFORMS) {
+            PREPARED.remove(x);
+            TRANSFORMS.keySet().removeIf(key -> key.operand.get() == x);
+        }
+    } // method release
+
+    /**
+     * Sets how large the cache may grow, as the sum of the transform lengths of
+     * its entries; the least recently used entries go first. An entry takes 24
+     * bytes per coefficient (one long for each of the three primes), so a single
+     * transform of the maximum length, 2^25, takes 800 MB. A transform longer
+     * than the capacity is used for the product at hand but not kept.
+     *
+     * @param coefficients the capacity in transform coefficients, >= 0
+     */
+    public static void setCacheCapacity(final long coefficients) {
+        if (coefficients < 0) {
+            throw new IllegalArgumentException("Negative cache capacity: " + coefficients);
+        }
+        synchronized (TRANSFORMS) {
+            TRANSFORMS.capacity = coefficients;
+            TRANSFORMS.trim();
+        }
+    } // method setCacheCapacity
+
+    /** Returns x or y if it was prepared for this base, else null */
+    private static int[] preparedOperand(final int[] x, final int[] y, final int base) {
+        synchronized (TRANSFORMS) {
+            if (PREPARED.isEmpty()) {
+                return null;
+            }
+            Integer xBase = PREPARED.get(x);
+            if (xBase != null && xBase == base) {
+                return x;
+            }
+            Integer yBase = PREPARED.get(y);
+            return (yBase != null && yBase == base) ? y : null;
+        }
+    } // method preparedOperand
+
+    /**
+     * Multiplies a prepared operand with a partner, reusing the cached forward
+     * transforms of the prepared one. Passing x as the partner squares. The
+     * grouping is the one an unprepared product would use.
+     *
+     * @return x.length + y.length digits, leading zeros included
+     */
+    private static int[] multiplyPrepared(final int[] x, final int[] y, final int base) {
+        int digitsPerGroup = digitsPerGroup(x.length, y.length, base);
+        int groups = (x.length + digitsPerGroup - 1) / digitsPerGroup;
+        long[] yGroups = (y == x) ? null : toGroups(y, base, digitsPerGroup);
+        int columns = groups + ((yGroups == null) ? groups : yGroups.length) - 1;
+        long[][] xTransforms = transforms(x, base, digitsPerGroup, transformLength(columns));
+        long[] sums = convolve(xTransforms, yGroups, columns);
+        return toDigits(sums, power(base, digitsPerGroup), base, digitsPerGroup, x.length + y.length);
+    } // method multiplyPrepared
+
+    /**
+     * Looks up the forward transforms of a prepared operand for one grouping and
+     * transform length, computing and caching them on a miss. Two threads that miss at the
+     * same time both compute; the results are the same.
+     *
+     * @return one transform per prime; shared, not to be modified
+     */
+    private static long[][] transforms(final int[] x, final int base, final int digitsPerGroup, final int length) {
+        TransformKey key = new TransformKey(x, base, digitsPerGroup, length);
+        synchronized (TRANSFORMS) {
+            long[][] cached = TRANSFORMS.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long[] groups = toGroups(x, base, digitsPerGroup);
+        long[][] computed = new long[PRIMES.length][];
+        for (int k = 0; k < PRIMES.length; k++) {
+            computed[k] = reduced(groups, length, PRIMES[k]);
+            transform(computed[k], PRIMES[k], GENERATORS[k], false);
+        }
+        synchronized (TRANSFORMS) {
+            TRANSFORMS.put(key, computed);
+            TRANSFORMS.trim();
+        }
+        return computed;
+    } // method transforms
+
+    /**
+     * Computes column sums like convolve(a, b), with the forward transforms of a
+     * given. The given transforms are left unchanged.
+     *
+     * @param aTransforms forward transforms of one number, one per prime
+     * @param b           coefficients of the other number; null squares a
+     * @param columns     number of column sums
+     * @return the column sums
+     */
+    private static long[] convolve(final long[][] aTransforms, final long[] b, final int columns) {
+        long[][] residues = new long[PRIMES.length][];
+        for (int k = 0; k < PRIMES.length; k++) {
+            long p = PRIMES[k];
+            long[] fa = aTransforms[k];
+            long[] fb;
+            if (b == null) {
+                fb = fa.clone();
+            } else {
+                fb = reduced(b, fa.length, p);
+                transform(fb, p, GENERATORS[k], false);
+            }
+            for (int i = 0; i < fb.length; i++) {
+                fb[i] = fa[i] * fb[i] % p;
+            }
+            transform(fb, p, GENERATORS[k], true);
+            residues[k] = fb;
+        }
+        return combine(residues, columns);
+    } // method convolve
+
+    /**
+     * Computes the exact convolution (column sums) of two coefficient arrays,
+     * least significant first. The caller guarantees that every column sum is
+     * below 2^62. Passing the same array twice squares with one forward transform
+     * per prime.
+     *
+     * @param a coefficients of one number
+     * @param b coefficients of the other number
+     * @return array of a.length + b.length - 1 column sums
+     */
+    static long[] convolve(final long[] a, final long[] b) {
+        int columns = a.length + b.length - 1;
+        int length = transformLength(columns);
+        // Remainders of every column sum modulo each of the three primes
+        long[][] residues = new long[PRIMES.length][];
+        for (int k = 0; k < PRIMES.length; k++) {
+            long p = PRIMES[k];
+            long[] fa = reduced(a, length, p);
+            transform(fa, p, GENERATORS[k], false);
+            long[] fb = fa;
+            if (a != b) {
+                fb = reduced(b, length, p);
+                transform(fb, p, GENERATORS[k], false);
+            }
+            for (int i = 0; i < length; i++) {
+                fa[i] = fa[i] * fb[i] % p;
+            }
+            transform(fa, p, GENERATORS[k], true);
+            residues[k] = fa;
+        }
+        return combine(residues, columns);
+    } // method convolve
+
+    /**
+     * Rebuilds column sums from their remainders modulo the three primes (Garner's
+     * form of the CRT). With r0, r1, r2 the remainders,
+     *
+     * value = r0 + p0 * t1 + p0 * p1 * t2
+     *
+     * where t1 < p1 and t2 < p2 are chosen to match r1 and r2. The last term can
+     * exceed a long, but Java's long arithmetic wraps around modulo 2^64, and the
+     * true value is below 2^62, so the wrapped result is the true value.
+     *
+     * @param residues remainders for each prime
+     * @param columns  number of column sums to rebuild
+     * @return the column sums
+     */
+    private static long[] combine(final long[][] residues, final int columns) {
+        long p0 = PRIMES[0], p1 = PRIMES[1], p2 = PRIMES[2];
+        long p0InverseModP1 = power(p0 % p1, p1 - 2, p1);
+        long p0p1InverseModP2 = power(p0 % p2 * (p1 % p2) % p2, p2 - 2, p2);
+        long[] result = new long[columns];
+        for (int i = 0; i < columns; i++) {
+            long r0 = residues[0][i], r1 = residues[1][i], r2 = residues[2][i];
+            long t1 = ((r1 - r0 % p1 + p1) % p1) * p0InverseModP1 % p1;
+            // Value matched so far: r0 + p0 * t1 (below p0 * p1 < 2^62)
+            long partial = r0 + p0 * t1;
+            long t2 = ((r2 - partial % p2 + p2) % p2) * p0p1InverseModP2 % p2;
+            result[i] = partial + p0 * p1 * t2;
+        }
+        return result;
+    } // method combine
+
+    /**
+     * In-place iterative NTT of an array whose length is a power of 2. The forward
+     * transform evaluates the polynomial with the array's coefficients at the
+     * powers of a root of unity; the inverse transform undoes it.
+     *
+     * @param a         values modulo p, replaced by their transform
+     * @param p         prime modulus
+     * @param generator primitive root modulo p
+     * @param inverse   true for the inverse transform
+     */
+    private static void transform(long[] a, final long p, final long generator, final boolean inverse) {
+        int n = a.length;
+        // Reorder the entries by bit-reversed index so the butterflies work in place
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            while ((j & bit) != 0) {
+                j ^= bit;
+                bit >>= 1;
+            }
+            j ^= bit;
+            if (i < j) {
+                long temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+            }
+        }
+        // Powers of a primitive n-th root of unity, shared by all stages
+        long root = power(generator, (p - 1) / n, p);
+        if (inverse) {
+            root = power(root, p - 2, p);
+        }
+        long[] twiddles = new long[Math.max(1, n / 2)];
+        twiddles[0] = 1;
+        for (int i = 1; i < twiddles.length; i++) {
+            twiddles[i] = twiddles[i - 1] * root % p;
+        }
+        // Butterflies: stage by stage, combine blocks of length len/2 into blocks of len
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len / 2;
+            int step = n / len;
+            for (int start = 0; start < n; start += len) {
+                for (int j = 0; j < half; j++) {
+                    long u = a[start + j];
+                    long v = a[start + j + half] * twiddles[j * step] % p;
+                    long sum = u + v;
+                    long difference = u - v;
+                    a[start + j] = (sum >= p) ? sum - p : sum;
+                    a[start + j + half] = (difference < 0) ? difference + p : difference;
+                }
+            }
+        }
+        // The inverse transform also divides by n
+        if (inverse) {
+            long nInverse = power(n, p - 2, p);
+            for (int i = 0; i < n; i++) {
+                a[i] = a[i] * nInverse % p;
+            }
+        }
+    } // method transform
+
+    /**
+     * Finds how many digits to group into one coefficient. More digits per group
+     * mean shorter transforms, but larger column sums; we take the most digits
+     * that keep every column sum below 2^62.
+     *
+     * @param xLength digits in one operand
+     * @param yLength digits in the other operand
+     * @param base    number system base
+     * @return digits per group, at least 1
+     */
+    static int digitsPerGroup(final int xLength, final int yLength, final int base) {
+        int shorter = Math.min(xLength, yLength);
+        int digits = 1;
+        long groupBase = base;
+        while (groupBase * base <= Integer.MAX_VALUE) {
+            long nextBase = groupBase * base;
+            // A column sum adds at most (number of groups in the shorter operand)
+            // products of two groups
+            long terms = (shorter + digits) / (digits + 1);
+            if ((nextBase - 1) * (nextBase - 1) >= MAX_COLUMN_SUM / terms) {
+                break;
+            }
+            groupBase = nextBase;
+            digits++;
+        }
+        return digits;
+    } // method digitsPerGroup
+
+    /**
+     * Groups an array of digits, most significant first, into coefficients of
+     * base^digitsPerGroup, least significant first.
+     */
+    static long[] toGroups(final int[] digits, final int base, final int digitsPerGroup) {
+        long[] groups = new long[(digits.length + digitsPerGroup - 1) / digitsPerGroup];
+        for (int g = 0; g < groups.length; g++) {
+            int end = digits.length - g * digitsPerGroup;
+            int start = Math.max(0, end - digitsPerGroup);
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                value = value * base + digits[i];
+            }
+            groups[g] = value;
+        }
+        return groups;
+    } // method toGroups
+
+    /**
+     * Carries column sums in base groupBase and spreads the result into single
+     * digits, most significant first. Digits beyond the given length are dropped,
+     * so length must be large enough for the value. For long products, both the
+     * carrying (see CarryPropagation) and the spreading run on all cores of the
+     * common pool.
+     *
+     * @param columns        column sums, least significant first
+     * @param groupBase      base^digitsPerGroup
+     * @param base           number system base
+     * @param digitsPerGroup digits in each group
+     * @param length         number of digits to produce
+     * @return array of length digits, leading zeros included
+     */
+    static int[] toDigits(final long[] columns, final long groupBase, final int base, final int digitsPerGroup,
+            final int length) {
+        int groupCount = (length + digitsPerGroup - 1) / digitsPerGroup;
+        int[] groups = CarryPropagation.propagate(columns, groupBase, groupCount);
+        int[] digits = new int[length];
+        // Groups are independent now, so segments of them can be spread at the same time
+        int segmentLength = CarryPropagation.DEFAULT_SEGMENT_LENGTH;
+        int segments = (groupCount + segmentLength - 1) / segmentLength;
+        CarryPropagation.forEachSegment(ForkJoinPool.commonPool(), segments, s -> {
+            int end = Math.min(groupCount, (s + 1) * segmentLength);
+            for (int g = s * segmentLength; g < end; g++) {
+                int group = groups[g];
+                int position = length - 1 - g * digitsPerGroup;
+                for (int i = 0; i < digitsPerGroup && position >= 0; i++) {
+                    digits[position--] = group % base;
+                    group /= base;
+                }
+            }
+        });
+        return digits;
+    } // method toDigits
+
+    /** Copies values modulo p into a zero-padded array of the given length */
+    private static long[] reduced(final long[] values, final int length, final long p) {
+        long[] result = new long[length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i] % p;
+        }
+        return result;
+    } // method reduced
+
+    /** Smallest power of 2 that is >= the number of columns */
+    static int transformLength(final int columns) {
+        int length = 1;
+        while (length < columns) {
+            length <<= 1;
+        }
+        if (length > MAX_TRANSFORM_LENGTH) {
+            throw new IllegalArgumentException("Operands too large for the transform: " + columns + " coefficients");
+        }
+        return length;
+    } // method transformLength
+
+    /** Modular exponentiation by repeated squaring: base^exponent mod p */
+    private static long power(long base, long exponent, final long p) {
+        long result = 1;
+        base %= p;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1) {
+                result = result * base % p;
+            }
+            base = base * base % p;
+            exponent >>= 1;
+        }
+        return result;
+    } // method power
+
+    /** Integer power for small results; base^exponent must fit in an int */
+    private static int power(final int base, final int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    } // method power
+
+    /**
+     * Cache key: an operand by identity, its base, grouping and transform length.
+     * The operand is held weakly; once it is collected, the key equals only
+     * itself, and the cache drops its entry at the next trim.
+     */
+    private static final class TransformKey {
+
+        final WeakReference<int[]> operand;
+        final int identity;
+        final int base;
+        final int digitsPerGroup;
+        final int length;
+
+        TransformKey(final int[] operand, final int base, final int digitsPerGroup, final int length) {
+            this.operand = new WeakReference<>(operand);
+            this.identity = System.identityHashCode(operand);
+            this.base = base;
+            this.digitsPerGroup = digitsPerGroup;
+            this.length = length;
+        } // constructor
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof TransformKey)) {
+                return false;
+            }
+            TransformKey key = (TransformKey) other;
+            int[] array = this.operand.get();
+            return array != null && array == key.operand.get() && this.base == key.base
+                    && this.digitsPerGroup == key.digitsPerGroup && this.length == key.length;
+        } // method equals
+
+        @Override
+        public int hashCode() {
+            return ((this.identity * 31 + this.base) * 31 + this.digitsPerGroup) * 31 + this.length;
+        } // method hashCode
+    } // class TransformKey
+
+    /**
+     * Forward transforms in access order, least recently used first, up to a
+     * total transform length
+     */
+    private static final class TransformCache extends LinkedHashMap<TransformKey, long[][]> {
+
+        private static final long serialVersionUID = 1L;
+
+        long capacity;
+
+        TransformCache(final long capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        } // constructor
+
+        /**
+         * Drops the entries of collected operands, then the least recently used
+         * entries until the total transform length fits the capacity
+         */
+        void trim() {
+            keySet().removeIf(key -> key.operand.get() == null);
+            long total = 0;
+            for (TransformKey key : keySet()) {
+                total += key.length;
+            }
+            Iterator<TransformKey> keys = keySet().iterator();
+            while (total > this.capacity) {
+                total -= keys.next().length;
+                keys.remove();
+            }
+        } // method trim
+    } // class TransformCache
+
+    public static void main(String[] args) {
+        int[] x = { 1, 2, 3, 4 };
+        int[] y = { 5, 6, 7, 8 };
+        int[] z = multiply(x, y);
+        System.out.println(Arrays.toString(z));
+    } // method main
+} // class NttMultiplication
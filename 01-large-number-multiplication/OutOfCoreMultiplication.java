@@ -0,0 +1,666 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Multiplication of integers that are too large for the heap. Operands and
+ * product live in files of packed limbs, which are mapped into memory
+ * (FileChannel.map) rather than read into arrays. The operating system pages
+ * them in and out as the multiplication streams over them, and the heap only
+ * ever holds a few blocks.
+ *
+ * A file holds the limbs of a PackedNumber: 4-byte little-endian ints, least
+ * significant limb first, each limb holding PackedNumber.digitsPerLimb(base)
+ * digits of the base. In base 10 that is nine decimal digits per limb, so a
+ * 4 GB file holds a number of about 9.7 billion digits.
+ *
+ * The multiplication is an NTT, as in NttMultiplication, whose passes run over
+ * files instead of arrays. Every limb is one coefficient. The column sums are
+ * computed modulo two primes of about 2^61 and rebuilt with the CRT; a product
+ * of two limbs is below 2^60, so even 2^60 of them add up to less than the
+ * product of the primes. Both primes have the form c * 2^k + 1 with k >= 56, so
+ * they support transforms of up to 2^55 coefficients, the limit of this class.
+ * Products modulo such primes need 128 bits, which Montgomery multiplication
+ * gets from Math.multiplyHigh.
+ *
+ * A transform of length N = N1 * N2 is done in four steps (Bailey's
+ * algorithm). The N coefficients form a matrix of N1 rows and N2 columns,
+ * stored row by row in a temporary file:
+ *
+ * 1. transform every column (length N1),
+ * 2. multiply the entry in row k1 and column n2 with w^(k1 * n2), w being the
+ *    N-th root of unity,
+ * 3. transform every row (length N2).
+ *
+ * The result is the transform of the whole sequence, only stored in transposed
+ * order. That does not matter for a convolution: the transforms of x and y are
+ * in the same order when they are multiplied entry by entry, and the inverse
+ * transform runs the steps backwards and puts the column sums back in their
+ * natural order. A column pass reads a block of whole columns into the heap,
+ * transforms them there and writes them back; a row pass does the same with a
+ * block of rows. Per prime there are five passes: the columns of y, the rows of
+ * y, the columns of x, the rows of x -- fused with the product entry by entry
+ * and the inverse row transform -- and the inverse column transform. A last
+ * pass rebuilds the column sums from both primes, carries them into limbs and
+ * appends these to the product file.
+ *
+ * The cost is that of an NTT: about 3 N log N modular multiplications per
+ * prime, with N the power of 2 at or above the number of product limbs, and
+ * eleven passes over files of 8 bytes per coefficient. Two operands of 4 GB
+ * have 2^30 limbs each in base 10, so N = 2^31: three temporary files of 16 GB
+ * (x transformed for each prime, and y), created next to the product file and
+ * deleted when done.
+ *
+ * Only the blocks in use are on the heap: blockLimbs coefficients of 8 bytes,
+ * two blocks in the fused row pass, but at least one whole column or row of
+ * about sqrt(N) coefficients (2^16 for N = 2^31), plus tables of roots of unity
+ * of the same size. With the default block of 2^20 that is about 20 MB,
+ * whatever the size of the files.
+ */
+public class OutOfCoreMultiplication {
+
+    /** Transform coefficients per block when the caller does not say */
+    public static final int DEFAULT_BLOCK_LIMBS = 1 << 20;
+
+    private static final int BYTES_PER_LIMB = Integer.BYTES;
+
+    /** The two primes, 27 * 2^56 + 1 and 29 * 2^57 + 1, both below 2^62 */
+    private static final long[] PRIMES = { 1945555039024054273L, 4179340454199820289L };
+
+    /** A primitive root (generator) for each prime */
+    private static final long[] GENERATORS = { 5, 3 };
+
+    /** Longest transform both primes support, kept to 2^55 so that rows fit a file segment */
+    private static final long MAX_TRANSFORM_LENGTH = 1L << 55;
+
+    /**
+     * Multiplies two numbers stored in limb files and writes the product to a
+     * third file. The product file gets exactly the significant limbs of the
+     * product, with no zero limb on top; the product 0 is an empty file.
+     *
+     * @param x          file with the limbs of one operand
+     * @param y          file with the limbs of the other operand
+     * @param product    file for the product; created, or overwritten if it exists
+     * @param base       digit base of all three numbers
+     * @param blockLimbs transform coefficients per block held in memory at a time
+     * @return number of limbs of the product
+     * @throws IOException if a file cannot be read or written
+     */
+    public static long multiply(final Path x, final Path y, final Path product, final int base,
+            final int blockLimbs) throws IOException {
+        if (blockLimbs < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockLimbs);
+        }
+        try (FileChannel xChannel = FileChannel.open(x, StandardOpenOption.READ);
+                FileChannel yChannel = FileChannel.open(y, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(product, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            LimbFile xLimbs = new LimbFile(xChannel, FileChannel.MapMode.READ_ONLY, limbCount(xChannel));
+            LimbFile yLimbs = new LimbFile(yChannel, FileChannel.MapMode.READ_ONLY, limbCount(yChannel));
+            if (xLimbs.length == 0 || yLimbs.length == 0) {
+                return 0;
+            }
+            long columns = xLimbs.length + yLimbs.length - 1;
+            long length = Long.highestOneBit(columns);
+            if (length < columns) {
+                length <<= 1;
+            }
+            if (length > MAX_TRANSFORM_LENGTH) {
+                throw new IllegalArgumentException("Operands too large for the transform: " + columns
+                        + " coefficients");
+            }
+            Path directory = product.toAbsolutePath().getParent();
+            try (LongFile first = new LongFile(directory, length);
+                    LongFile second = new LongFile(directory, length);
+                    LongFile partner = new LongFile(directory, length)) {
+                // x's transform becomes the column sums modulo each prime; y's file is reused
+                LongFile[] residues = { first, second };
+                for (int k = 0; k < PRIMES.length; k++) {
+                    FileTransform transform = new FileTransform(PRIMES[k], GENERATORS[k], length, blockLimbs);
+                    transform.columns(yLimbs, partner);
+                    transform.rows(partner);
+                    transform.columns(xLimbs, residues[k]);
+                    transform.rowsTimes(residues[k], partner);
+                    transform.inverseColumns(residues[k]);
+                }
+                long limbs = carry(first, second, columns, new PackedNumber(new int[0], base).limbBase(),
+                        blockLimbs, out);
+                // The limbs were written in order, so the zero limbs on top are at the end
+                out.truncate(limbs * BYTES_PER_LIMB);
+                // Make sure the product is on disk, not just in the page cache
+                out.force(false);
+                return limbs;
+            }
+        }
+    } // method multiply
+
+    public static long multiply(final Path x, final Path y, final Path product, final int base)
+            throws IOException {
+        return multiply(x, y, product, base, DEFAULT_BLOCK_LIMBS);
+    } // method multiply
+
+    /**
+     * Rebuilds the column sums from their remainders modulo both primes, carries
+     * them into limbs and appends these to the product file, least significant
+     * first. With r0 and r1 the remainders, a column sum is r0 + p0 * t, where
+     * t < p1 is chosen to match r1 (Garner's form of the CRT). Sum and carry can
+     * exceed a long, so they are kept as two longs of 64 bits each.
+     *
+     * @param first      column sums modulo the first prime
+     * @param second     column sums modulo the second prime
+     * @param columns    number of column sums
+     * @param limbBase   value of one limb position
+     * @param blockLimbs column sums per block
+     * @param out        product file, positioned at its start
+     * @return number of limbs up to the most significant nonzero one
+     * @throws IOException if the product file cannot be written
+     */
+    private static long carry(final LongFile first, final LongFile second, final long columns,
+            final long limbBase, final int blockLimbs, final FileChannel out) throws IOException {
+        long p0 = PRIMES[0];
+        long p1 = PRIMES[1];
+        Modulus modulus = new Modulus(p1);
+        long p0Inverse = modulus.montgomery(BigInteger.valueOf(p0).modInverse(BigInteger.valueOf(p1)));
+        long[] r0 = new long[blockLimbs];
+        long[] r1 = new long[blockLimbs];
+        ByteBuffer limbs = ByteBuffer.allocate(blockLimbs * BYTES_PER_LIMB).order(ByteOrder.LITTLE_ENDIAN);
+        long carryHigh = 0;
+        long carryLow = 0;
+        long significant = 0;
+        for (long start = 0; start < columns; start += blockLimbs) {
+            int count = (int) Math.min(blockLimbs, columns - start);
+            first.get(start, r0, count);
+            second.get(start, r1, count);
+            limbs.clear();
+            for (int i = 0; i < count; i++) {
+                // p0 < p1, so r1 - r0 is above -p1
+                long difference = r1[i] - r0[i];
+                long t = modulus.multiply((difference < 0) ? difference + p1 : difference, p0Inverse);
+                long high = Math.multiplyHigh(p0, t);
+                long low = p0 * t + r0[i];
+                if (Long.compareUnsigned(low, r0[i]) < 0) {
+                    high++;
+                }
+                low += carryLow;
+                if (Long.compareUnsigned(low, carryLow) < 0) {
+                    high++;
+                }
+                high += carryHigh;
+                // Divide the 128-bit sum by the limb base, 32 bits at a time
+                carryHigh = high / limbBase;
+                long upper = ((high % limbBase) << 32) | (low >>> 32);
+                long lower = ((upper % limbBase) << 32) | (low & 0xFFFFFFFFL);
+                carryLow = ((upper / limbBase) << 32) | (lower / limbBase);
+                int limb = (int) (lower % limbBase);
+                limbs.putInt(limb);
+                if (limb != 0) {
+                    significant = start + i + 1;
+                }
+            }
+            write(out, limbs.flip());
+        }
+        // The carry out of the top column is the top limb, below the limb base
+        // since the product fits in x + y limbs
+        if (carryLow != 0) {
+            significant = columns + 1;
+        }
+        write(out, limbs.clear().putInt((int) carryLow).flip());
+        return significant;
+    } // method carry
+
+    private static void write(final FileChannel out, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    } // method write
+
+    /**
+     * Writes a number to a limb file.
+     *
+     * @param number the number to store
+     * @param file   the file; created, or overwritten if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(final PackedNumber number, final Path file) throws IOException {
+        int[] limbs = number.limbs();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            LimbFile target = new LimbFile(channel, FileChannel.MapMode.READ_WRITE, limbs.length);
+            for (int i = 0; i < limbs.length; i++) {
+                target.put(i, limbs[i]);
+            }
+            target.force();
+        }
+    } // method write
+
+    /**
+     * Reads a whole limb file into memory; for files that fit in the heap.
+     *
+     * @param file the file to read
+     * @param base digit base of the stored number
+     * @return the number
+     * @throws IOException if the file cannot be read
+     */
+    public static PackedNumber read(final Path file, final int base) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long count = limbCount(channel);
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException(file + " has too many limbs for one array: " + count);
+            }
+            return new PackedNumber(new LimbFile(channel, FileChannel.MapMode.READ_ONLY, count).limbs(0,
+                    (int) count), base);
+        }
+    } // method read
+
+    private static long limbCount(final FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size % BYTES_PER_LIMB != 0) {
+            throw new IllegalArgumentException("Limb file size is not a multiple of " + BYTES_PER_LIMB + ": "
+                    + size);
+        }
+        return size / BYTES_PER_LIMB;
+    } // method limbCount
+
+    /**
+     * Arithmetic modulo a prime p below 2^62 in Montgomery form: a constant c is
+     * kept as c * 2^64 mod p, and multiply(a, c) of a plain value a and such a
+     * constant gives the plain value a * c mod p, with two 128-bit products and
+     * no division.
+     */
+    private static final class Modulus {
+
+        final long p;
+
+        /** -p^-1 mod 2^64 */
+        private final long negatedInverse;
+
+        Modulus(final long p) {
+            this.p = p;
+            // Newton's iteration doubles the correct low bits; p * p = 1 mod 8 gives the first 3
+            long inverse = p;
+            for (int i = 0; i < 5; i++) {
+                inverse *= 2 - p * inverse;
+            }
+            this.negatedInverse = -inverse;
+        } // constructor
+
+        /** a * b / 2^64 mod p, for a and b below p */
+        long multiply(final long a, final long b) {
+            long low = a * b;
+            long high = Math.multiplyHigh(a, b);
+            // m * p cancels the low 64 bits of a * b; m is unsigned, hence the correction
+            long m = low * this.negatedInverse;
+            long result = high + Math.multiplyHigh(m, this.p) + ((m >> 63) & this.p) + ((low != 0) ? 1 : 0);
+            return (result >= this.p) ? result - this.p : result;
+        } // method multiply
+
+        /** Montgomery form of c */
+        long montgomery(final BigInteger c) {
+            return c.shiftLeft(Long.SIZE).mod(BigInteger.valueOf(this.p)).longValue();
+        } // method montgomery
+
+        /** Montgomery form of base^exponent, from and to Montgomery form */
+        long power(long base, long exponent) {
+            long result = montgomery(BigInteger.ONE);
+            while (exponent > 0) {
+                if ((exponent & 1) == 1) {
+                    result = multiply(result, base);
+                }
+                base = multiply(base, base);
+                exponent >>= 1;
+            }
+            return result;
+        } // method power
+
+        /** Montgomery forms of root^0 .. root^(count-1), at least one entry */
+        long[] powers(final BigInteger root, final int count) {
+            long[] powers = new long[Math.max(1, count)];
+            long factor = montgomery(root);
+            powers[0] = montgomery(BigInteger.ONE);
+            for (int i = 1; i < powers.length; i++) {
+                powers[i] = multiply(powers[i - 1], factor);
+            }
+            return powers;
+        } // method powers
+    } // class Modulus
+
+    /**
+     * The passes of the four-step transform modulo one prime. Values in the files
+     * are plain remainders; roots, twiddle factors and the scale of the inverse
+     * transform are in Montgomery form.
+     */
+    private static final class FileTransform {
+
+        private final Modulus modulus;
+
+        /** N1, the length of a column */
+        private final int rows;
+
+        /** N2, the length of a row */
+        private final int columns;
+
+        /** Columns per block of a column pass, rows per block of a row pass; powers of 2 */
+        private final int columnBlock;
+        private final int rowBlock;
+
+        /** w and 1/w */
+        private final long root;
+        private final long inverseRoot;
+
+        /** Powers of the roots of unity for transforms of a column and of a row */
+        private final long[] columnRoots;
+        private final long[] inverseColumnRoots;
+        private final long[] rowRoots;
+        private final long[] inverseRowRoots;
+
+        /**
+         * 2^128 / N: dividing by N, and multiplying back the 2^64 that the
+         * Montgomery product of two plain values divides by
+         */
+        private final long scale;
+
+        FileTransform(final long p, final long generator, final long length, final int blockLimbs) {
+            this.modulus = new Modulus(p);
+            int bits = Long.numberOfTrailingZeros(length);
+            this.columns = 1 << (bits / 2);
+            this.rows = (int) (length >>> (bits / 2));
+            this.columnBlock = Math.min(this.columns, Integer.highestOneBit(Math.max(1, blockLimbs / this.rows)));
+            this.rowBlock = Math.min(this.rows, Integer.highestOneBit(Math.max(1, blockLimbs / this.columns)));
+            BigInteger prime = BigInteger.valueOf(p);
+            BigInteger w = BigInteger.valueOf(generator).modPow(BigInteger.valueOf((p - 1) / length), prime);
+            BigInteger wInverse = w.modInverse(prime);
+            this.root = this.modulus.montgomery(w);
+            this.inverseRoot = this.modulus.montgomery(wInverse);
+            BigInteger rowCount = BigInteger.valueOf(this.rows);
+            BigInteger columnCount = BigInteger.valueOf(this.columns);
+            this.columnRoots = this.modulus.powers(w.modPow(columnCount, prime), this.rows / 2);
+            this.inverseColumnRoots = this.modulus.powers(wInverse.modPow(columnCount, prime), this.rows / 2);
+            this.rowRoots = this.modulus.powers(w.modPow(rowCount, prime), this.columns / 2);
+            this.inverseRowRoots = this.modulus.powers(wInverse.modPow(rowCount, prime), this.columns / 2);
+            this.scale = this.modulus.montgomery(BigInteger.valueOf(length).modInverse(prime).shiftLeft(Long.SIZE));
+        } // constructor
+
+        /** Step 1: transforms the columns of a limb file, padded with zeros, into target */
+        void columns(final LimbFile source, final LongFile target) {
+            long[][] block = new long[this.columnBlock][this.rows];
+            long[] line = new long[this.columnBlock];
+            for (int first = 0; first < this.columns; first += this.columnBlock) {
+                for (int r = 0; r < this.rows; r++) {
+                    long start = (long) r * this.columns + first;
+                    for (int c = 0; c < this.columnBlock; c++) {
+                        // A limb is below 2^31, so already reduced
+                        block[c][r] = (start + c < source.length) ? source.get(start + c) : 0;
+                    }
+                }
+                for (long[] column : block) {
+                    transform(column, 0, this.rows, this.columnRoots);
+                }
+                store(block, target, first, line);
+            }
+        } // method columns
+
+        /** Steps 2 and 3 in place */
+        void rows(final LongFile values) {
+            long[] block = new long[this.rowBlock * this.columns];
+            for (int first = 0; first < this.rows; first += this.rowBlock) {
+                long start = (long) first * this.columns;
+                values.get(start, block, block.length);
+                for (int r = 0; r < this.rowBlock; r++) {
+                    twiddle(block, r * this.columns, first + r, this.root);
+                    transform(block, r * this.columns, this.columns, this.rowRoots);
+                }
+                values.put(start, block, block.length);
+            }
+        } // method rows
+
+        /**
+         * Steps 2 and 3 of values, the product with the transformed partner entry by
+         * entry, and then the inverse steps 3 and 2, in place in values
+         */
+        void rowsTimes(final LongFile values, final LongFile partner) {
+            long[] block = new long[this.rowBlock * this.columns];
+            long[] partnerBlock = new long[block.length];
+            for (int first = 0; first < this.rows; first += this.rowBlock) {
+                long start = (long) first * this.columns;
+                values.get(start, block, block.length);
+                partner.get(start, partnerBlock, partnerBlock.length);
+                for (int r = 0; r < this.rowBlock; r++) {
+                    int offset = r * this.columns;
+                    twiddle(block, offset, first + r, this.root);
+                    transform(block, offset, this.columns, this.rowRoots);
+                    for (int i = offset; i < offset + this.columns; i++) {
+                        block[i] = this.modulus.multiply(block[i], partnerBlock[i]);
+                    }
+                    transform(block, offset, this.columns, this.inverseRowRoots);
+                    twiddle(block, offset, first + r, this.inverseRoot);
+                }
+                values.put(start, block, block.length);
+            }
+        } // method rowsTimes
+
+        /** Inverse step 1 in place, with the division by N */
+        void inverseColumns(final LongFile values) {
+            long[][] block = new long[this.columnBlock][this.rows];
+            long[] line = new long[this.columnBlock];
+            for (int first = 0; first < this.columns; first += this.columnBlock) {
+                for (int r = 0; r < this.rows; r++) {
+                    values.get((long) r * this.columns + first, line, this.columnBlock);
+                    for (int c = 0; c < this.columnBlock; c++) {
+                        block[c][r] = line[c];
+                    }
+                }
+                for (long[] column : block) {
+                    transform(column, 0, this.rows, this.inverseColumnRoots);
+                    for (int r = 0; r < this.rows; r++) {
+                        column[r] = this.modulus.multiply(column[r], this.scale);
+                    }
+                }
+                store(block, values, first, line);
+            }
+        } // method inverseColumns
+
+        /** Writes a block of columns back into the rows of a file */
+        private void store(final long[][] block, final LongFile target, final int first, final long[] line) {
+            for (int r = 0; r < this.rows; r++) {
+                for (int c = 0; c < this.columnBlock; c++) {
+                    line[c] = block[c][r];
+                }
+                target.put((long) r * this.columns + first, line, this.columnBlock);
+            }
+        } // method store
+
+        /** Step 2 for one row: multiplies entry n2 of row k1 with root^(k1 * n2) */
+        private void twiddle(final long[] a, final int offset, final int row, final long root) {
+            long step = this.modulus.power(root, row);
+            long factor = this.modulus.montgomery(BigInteger.ONE);
+            for (int i = offset; i < offset + this.columns; i++) {
+                a[i] = this.modulus.multiply(a[i], factor);
+                factor = this.modulus.multiply(factor, step);
+            }
+        } // method twiddle
+
+        /**
+         * In-place iterative NTT of a[offset] .. a[offset+n-1], n a power of 2, as
+         * NttMultiplication.transform but without the division by n.
+         *
+         * @param roots the first n/2 powers of a primitive n-th root of unity
+         */
+        private void transform(final long[] a, final int offset, final int n, final long[] roots) {
+            long p = this.modulus.p;
+            // Reorder the entries by bit-reversed index so the butterflies work in place
+            for (int i = 1, j = 0; i < n; i++) {
+                int bit = n >> 1;
+                while ((j & bit) != 0) {
+                    j ^= bit;
+                    bit >>= 1;
+                }
+                j ^= bit;
+                if (i < j) {
+                    long temp = a[offset + i];
+                    a[offset + i] = a[offset + j];
+                    a[offset + j] = temp;
+                }
+            }
+            for (int len = 2; len <= n; len <<= 1) {
+                int half = len / 2;
+                int step = n / len;
+                for (int start = offset; start < offset + n; start += len) {
+                    for (int j = 0; j < half; j++) {
+                        long u = a[start + j];
+                        long v = this.modulus.multiply(a[start + j + half], roots[j * step]);
+                        // Both below p < 2^62, so the sum fits in a long
+                        long sum = u + v;
+                        long difference = u - v;
+                        a[start + j] = (sum >= p) ? sum - p : sum;
+                        a[start + j + half] = (difference < 0) ? difference + p : difference;
+                    }
+                }
+            }
+        } // method transform
+    } // class FileTransform
+
+    /**
+     * The limbs of a file, mapped in segments of 2^28 limbs (1 GB), since one
+     * mapping cannot exceed 2 GB. The whole file stays mapped while it is in use:
+     * mapping every block separately would pile up thousands of mappings, which
+     * the JVM only releases when the garbage collector happens to run.
+     */
+    private static class LimbFile {
+
+        private static final int SEGMENT_BITS = 28;
+        private static final int SEGMENT_LIMBS = 1 << SEGMENT_BITS;
+
+        final long length;
+        private final MappedByteBuffer[] mappings;
+        private final IntBuffer[] segments;
+
+        LimbFile(final FileChannel channel, final FileChannel.MapMode mode, final long length) throws IOException {
+            this.length = length;
+            int count = (int) ((length + SEGMENT_LIMBS - 1) >>> SEGMENT_BITS);
+            this.mappings = new MappedByteBuffer[count];
+            this.segments = new IntBuffer[count];
+            for (int s = 0; s < count; s++) {
+                long start = (long) s << SEGMENT_BITS;
+                long limbs = Math.min(SEGMENT_LIMBS, length - start);
+                this.mappings[s] = channel.map(mode, start * BYTES_PER_LIMB, limbs * BYTES_PER_LIMB);
+                this.segments[s] = this.mappings[s].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+        } // constructor
+
+        /** Writes changes of a read-write mapping through to the file */
+        void force() {
+            for (MappedByteBuffer mapping : this.mappings) {
+                mapping.force();
+            }
+        } // method force
+
+        int get(final long index) {
+            return this.segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & (SEGMENT_LIMBS - 1)));
+        } // method get
+
+        void put(final long index, final int limb) {
+            this.segments[(int) (index >>> SEGMENT_BITS)].put((int) (index & (SEGMENT_LIMBS - 1)), limb);
+        } // method put
+
+        /** Copies limbs start .. start+count-1 into a new array */
+        int[] limbs(final long start, final int count) {
+            int[] limbs = new int[count];
+            for (int done = 0; done < count; ) {
+                long index = start + done;
+                IntBuffer segment = this.segments[(int) (index >>> SEGMENT_BITS)];
+                int offset = (int) (index & (SEGMENT_LIMBS - 1));
+                int n = Math.min(count - done, segment.limit() - offset);
+                segment.get(offset, limbs, done, n);
+                done += n;
+            }
+            return limbs;
+        } // method limbs
+    } // class LimbFile
+
+    /**
+     * A temporary file of longs in the native byte order, mapped like a LimbFile
+     * in segments of 2^27 longs (1 GB); a row of the transform never crosses a
+     * segment. The file is deleted when closed.
+     */
+    private static final class LongFile implements Closeable {
+
+        private static final int SEGMENT_BITS = 27;
+        private static final int SEGMENT_LONGS = 1 << SEGMENT_BITS;
+
+        private final FileChannel channel;
+        private final LongBuffer[] segments;
+
+        LongFile(final Path directory, final long length) throws IOException {
+            this.channel = FileChannel.open(Files.createTempFile(directory, "transform", ".tmp"),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            try {
+                int count = (int) ((length + SEGMENT_LONGS - 1) >>> SEGMENT_BITS);
+                this.segments = new LongBuffer[count];
+                for (int s = 0; s < count; s++) {
+                    long start = (long) s << SEGMENT_BITS;
+                    long longs = Math.min(SEGMENT_LONGS, length - start);
+                    // Mapping beyond the end extends the file
+                    this.segments[s] = this.channel.map(FileChannel.MapMode.READ_WRITE, start * Long.BYTES,
+                            longs * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+                }
+            } catch (IOException | RuntimeException e) {
+                this.channel.close();
+                throw e;
+            }
+        } // constructor
+
+        /** Copies longs start .. start+count-1 into values */
+        void get(final long start, final long[] values, final int count) {
+            for (int done = 0; done < count; ) {
+                long index = start + done;
+                LongBuffer segment = this.segments[(int) (index >>> SEGMENT_BITS)];
+                int offset = (int) (index & (SEGMENT_LONGS - 1));
+                int n = Math.min(count - done, segment.limit() - offset);
+                segment.get(offset, values, done, n);
+                done += n;
+            }
+        } // method get
+
+        /** Copies values[0] .. values[count-1] to longs start .. start+count-1 */
+        void put(final long start, final long[] values, final int count) {
+            for (int done = 0; done < count; ) {
+                long index = start + done;
+                LongBuffer segment = this.segments[(int) (index >>> SEGMENT_BITS)];
+                int offset = (int) (index & (SEGMENT_LONGS - 1));
+                int n = Math.min(count - done, segment.limit() - offset);
+                segment.put(offset, values, done, n);
+                done += n;
+            }
+        } // method put
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        } // method close
+    } // class LongFile
+
+    public static void main(String[] args) throws IOException {
+        Path x = Files.createTempFile("x", ".limbs");
+        Path y = Files.createTempFile("y", ".limbs");
+        Path product = Files.createTempFile("product", ".limbs");
+        try {
+            write(PackedNumber.fromDigits(new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 0, 1, 2 }), x);
+            write(PackedNumber.fromDigits(new int[] { 9, 8, 7, 6, 5, 4, 3, 2, 1, 0 }), y);
+            long limbs = multiply(x, y, product, 10, 1);
+            System.out.println(limbs + " limbs: " + read(product, 10));
+        } finally {
+            Files.delete(x);
+            Files.delete(y);
+            Files.delete(product);
+        }
+    } // method main
+} // class OutOfCoreMultiplication
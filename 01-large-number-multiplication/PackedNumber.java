@@ -0,0 +1,235 @@
+import java.util.Arrays; // for toString() and copyOf()
+
+/**
+ * A large non-negative integer stored in packed limbs instead of one digit per
+ * int. GradeSchoolMultiplication_Solution keeps a single digit in every 32-bit
+ * int; in base 10 that uses about 3.3 of the 32 bits. Here several digits share
+ * one int: in base 10, nine digits per int, i.e., limbs in base 10^9. A number
+ * with n decimal digits then needs n/9 ints, and the grade school loop performs
+ * (n/9)*(m/9) multiplications instead of n*m.
+ *
+ * Limbs are stored least significant first, which is the natural order for
+ * carrying. For example, in base 10 the number 1234567890123 is stored as the
+ * limbs [567890123, 1234]. Leading zero limbs are never stored, so the number 0
+ * has no limbs at all.
+ *
+ * Any digit base from 2 to 46340 works. Each limb holds as many digits as fit
+ * without exceeding 10^9; in base 2 for example that is 29 digits per limb.
+ */
+public class PackedNumber {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Upper bound for the limb base; keeps limb * limb + carries within a long */
+    private static final int MAX_LIMB_BASE = 1_000_000_000;
+
+    /** Limbs, least significant first, with no leading zero limbs */
+    private final int[] limbs;
+
+    /** Base of the digits this number converts to and from */
+    private final int digitBase;
+
+    /** How many digits each limb holds */
+    private final int digitsPerLimb;
+
+    /** digitBase ^ digitsPerLimb */
+    private final int limbBase;
+
+    /**
+     * Builds a number from limbs that are already packed for the given digit base.
+     * Leading zero limbs are trimmed.
+     *
+     * @param limbs     limbs, least significant first; the array is not copied
+     * @param digitBase number system base of the digits
+     */
+    PackedNumber(final int[] limbs, final int digitBase) {
+        int length = limbs.length;
+        while (length > 0 && limbs[length - 1] == 0) {
+            length--;
+        }
+        this.limbs = (length == limbs.length) ? limbs : Arrays.copyOf(limbs, length);
+        this.digitBase = digitBase;
+        this.digitsPerLimb = digitsPerLimb(digitBase);
+        this.limbBase = power(digitBase, this.digitsPerLimb);
+    } // package-private constructor
+
+    /**
+     * Packs an array of single digits, most significant first, into limbs. Leading
+     * zeros are dropped; the value is kept exactly.
+     *
+     * @param digits array of single digits, each < base
+     * @param base   number system base of the digits
+     * @return the packed number
+     */
+    public static PackedNumber fromDigits(final int[] digits, final int base) {
+        int perLimb = digitsPerLimb(base);
+        int[] packed = new int[(digits.length + perLimb - 1) / perLimb];
+        // Walk the digits from the back, perLimb digits at a time. Limb k holds the
+        // digits that end perLimb*k positions from the end of the array.
+        for (int k = 0; k < packed.length; k++) {
+            int end = digits.length - k * perLimb;
+            int start = Math.max(0, end - perLimb);
+            int limb = 0;
+            for (int i = start; i < end; i++) {
+                limb = limb * base + digits[i];
+            }
+            packed[k] = limb;
+        }
+        return new PackedNumber(packed, base);
+    } // method fromDigits
+
+    /** Helper fromDigits for default number base */
+    public static PackedNumber fromDigits(final int[] digits) {
+        return fromDigits(digits, DEFAULT_BASE);
+    } // overloaded fromDigits
+
+    /**
+     * Unpacks the number into single digits, most significant first, without
+     * leading zeros. The number 0 becomes [0].
+     *
+     * @return a new array of single digits
+     */
+    public int[] toDigits() {
+        if (this.limbs.length == 0) {
+            return new int[1];
+        }
+        // Every limb except the most significant one contributes exactly
+        // digitsPerLimb digits; count the digits of the top limb separately.
+        int top = this.limbs[this.limbs.length - 1];
+        int topDigits = 0;
+        for (int value = top; value > 0; value /= this.digitBase) {
+            topDigits++;
+        }
+        int[] digits = new int[topDigits + (this.limbs.length - 1) * this.digitsPerLimb];
+        int position = digits.length - 1;
+        for (int k = 0; k < this.limbs.length; k++) {
+            int limb = this.limbs[k];
+            int count = (k == this.limbs.length - 1) ? topDigits : this.digitsPerLimb;
+            for (int i = 0; i < count; i++) {
+                digits[position--] = limb % this.digitBase;
+                limb /= this.digitBase;
+            }
+        }
+        return digits;
+    } // method toDigits
+
+    /**
+     * Multiplies this number with another one using the grade school method on
+     * limbs. Each limb product is at most (10^9)^2 = 10^18, and adding the limb
+     * already in the result and the carry keeps the sum below the largest long.
+     *
+     * @param other the number to multiply with; must use the same digit base
+     * @return the product, in the same digit base
+     */
+    public PackedNumber multiply(final PackedNumber other) {
+        if (this.digitBase != other.digitBase) {
+            throw new IllegalArgumentException("Cannot multiply numbers in bases " + this.digitBase + " and "
+                    + other.digitBase);
+        }
+        int[] a = this.limbs;
+        int[] b = other.limbs;
+        if (a.length == 0 || b.length == 0) {
+            return new PackedNumber(new int[0], this.digitBase);
+        }
+        int[] product = new int[a.length + b.length];
+        for (int i = 0; i < a.length; i++) {
+            long carry = 0;
+            for (int j = 0; j < b.length; j++) {
+                long sum = product[i + j] + (long) a[i] * b[j] + carry;
+                product[i + j] = (int) (sum % this.limbBase);
+                carry = sum / this.limbBase;
+            }
+            product[i + b.length] = (int) carry;
+        }
+        return new PackedNumber(product, this.digitBase);
+    } // method multiply
+
+    /**
+     * Multiplies two integers represented as arrays of single digits by packing
+     * them into limbs first. The arguments and the result follow the contract of
+     * GradeSchoolMultiplication_Solution.multiply, so callers can switch to this
+     * method without other changes.
+     *
+     * @param x    one of the two arrays with the integers to multiply
+     * @param y    the other array with the integer to multiply
+     * @param base the number base of the system
+     * @return the product, in the same form as
+     *         GradeSchoolMultiplication_Solution.multiply returns it
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base) {
+        // If one of the input arrays has 0 length, return [0] like the grade school method
+        if (x.length == 0 || y.length == 0) {
+            return new int[1];
+        }
+        int[] product = fromDigits(x, base).multiply(fromDigits(y, base)).toDigits();
+        return DigitArithmetic.toProductShape(product, x.length, y.length);
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y) {
+        return multiply(x, y, DEFAULT_BASE);
+    } // method multiply
+
+    /** @return the base of the digits this number converts to and from */
+    public int digitBase() {
+        return this.digitBase;
+    } // method digitBase
+
+    /** @return the number of limbs, i.e., 0 for the number 0 */
+    public int limbCount() {
+        return this.limbs.length;
+    } // method limbCount
+
+    /** @return the limbs, least significant first; callers must not modify it */
+    int[] limbs() {
+        return this.limbs;
+    } // method limbs
+
+    /** @return the value of one limb position, digitBase ^ digitsPerLimb */
+    int limbBase() {
+        return this.limbBase;
+    } // method limbBase
+
+    /** @return how many digits each limb holds */
+    int digitsPerLimb() {
+        return this.digitsPerLimb;
+    } // method digitsPerLimb
+
+    /** @return the digits of this number, in the format of Arrays.toString */
+    @Override
+    public String toString() {
+        return Arrays.toString(toDigits());
+    } // method toString
+
+    /**
+     * Finds how many digits of a base fit in one limb, i.e., the largest k with
+     * base^k <= 10^9.
+     *
+     * @param base number system base of the digits
+     * @return digits per limb, at least 1
+     */
+    static int digitsPerLimb(final int base) {
+        int count = 1;
+        long limbBase = base;
+        while (limbBase * base <= MAX_LIMB_BASE) {
+            limbBase *= base;
+            count++;
+        }
+        return count;
+    } // method digitsPerLimb
+
+    /** Integer power for small results; base^exponent must fit in an int */
+    private static int power(final int base, final int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    } // method power
+
+    public static void main(String[] args) {
+        int[] x = { 1, 2, 3, 4 };
+        int[] y = { 5, 6, 7, 8 };
+        int[] z = multiply(x, y);
+        System.out.println(Arrays.toString(z));
+    } // method main
+} // class PackedNumber
@@ -0,0 +1,122 @@
+import java.util.Arrays; // for toString() and copyOfRange()
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Karatsuba multiplication spread over several processor cores. The arrays
+ * follow the same contract as GradeSchoolMultiplication_Solution: single
+ * digits, most significant first, and the product comes back with x.length +
+ * y.length digits, minus a leading 0 if there is one.
+ *
+ * Each step of Karatsuba's method needs three half-size products that do not
+ * depend on each other. Here each of them becomes a task in a ForkJoinPool: two
+ * are handed to other threads (fork), the current thread works on the third, and
+ * then it waits for the other two (join). Splitting continues until operands are
+ * down to a sequential cutoff size; from there on, a task runs the ordinary
+ * single-threaded KaratsubaMultiplication. Tasks much smaller than that would
+ * cost more to schedule than to compute.
+ *
+ * The top levels of the recursion already produce 3, 9, 27, ... tasks, enough
+ * to keep every core of a large machine busy.
+ */
+public class ParallelMultiplication {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Operand size (in digits) at or below which a task runs sequentially */
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 2000;
+
+    /**
+     * Multiplies two integers represented as arrays, using the threads of the
+     * given pool.
+     *
+     * @param x                one of the two arrays with the integers to multiply
+     * @param y                the other array with the integer to multiply
+     * @param base             the number base of the system
+     * @param pool             the pool whose threads perform the work
+     * @param sequentialCutoff operands with this many digits or fewer are
+     *                         multiplied by a single thread
+     * @return the product of the two numbers, in the same form as
+     *         GradeSchoolMultiplication_Solution.multiply returns it
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base, final ForkJoinPool pool,
+            int sequentialCutoff) {
+        // If one of the input arrays has 0 length, return [0] like the grade school method
+        if (x.length == 0 || y.length == 0) {
+            return new int[1];
+        }
+        sequentialCutoff = Math.max(sequentialCutoff, KaratsubaMultiplication.MIN_CUTOFF);
+        // Give both operands the same number of digits, so that they split evenly
+        int length = Math.max(x.length, y.length);
+        ProductTask task = new ProductTask(DigitArithmetic.padded(x, length), DigitArithmetic.padded(y, length), base,
+                sequentialCutoff);
+        int[] product = pool.invoke(task);
+        return DigitArithmetic.toProductShape(product, x.length, y.length);
+    } // method multiply
+
+    /** Multiplies using the JVM-wide common pool and the default cutoff */
+    public static int[] multiply(final int[] x, final int[] y, final int base) {
+        return multiply(x, y, base, ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_CUTOFF);
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y) {
+        return multiply(x, y, DEFAULT_BASE);
+    } // method multiply
+
+    /**
+     * One Karatsuba product as a fork/join task. Like KaratsubaMultiplication's
+     * recursive step, both operands have the same number of digits n and the
+     * result has exactly 2n digits.
+     */
+    private static class ProductTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] x;
+        private final int[] y;
+        private final int base;
+        private final int sequentialCutoff;
+
+        ProductTask(final int[] x, final int[] y, final int base, final int sequentialCutoff) {
+            this.x = x;
+            this.y = y;
+            this.base = base;
+            this.sequentialCutoff = sequentialCutoff;
+        } // constructor
+
+        @Override
+        protected int[] compute() {
+            int n = this.x.length;
+            if (n <= this.sequentialCutoff) {
+                return KaratsubaMultiplication.product(this.x, this.y, this.base,
+                        KaratsubaMultiplication.DEFAULT_CUTOFF);
+            }
+            // Split exactly like KaratsubaMultiplication.product
+            int half = n / 2;
+            int highLength = n - half;
+            int[] xHigh = Arrays.copyOfRange(this.x, 0, highLength);
+            int[] xLow = Arrays.copyOfRange(this.x, highLength, n);
+            int[] yHigh = Arrays.copyOfRange(this.y, 0, highLength);
+            int[] yLow = Arrays.copyOfRange(this.y, highLength, n);
+            ProductTask high = new ProductTask(xHigh, yHigh, this.base, this.sequentialCutoff);
+            ProductTask low = new ProductTask(DigitArithmetic.padded(xLow, highLength),
+                    DigitArithmetic.padded(yLow, highLength), this.base, this.sequentialCutoff);
+            ProductTask middle = new ProductTask(DigitArithmetic.add(xHigh, xLow, this.base),
+                    DigitArithmetic.add(yHigh, yLow, this.base), this.base, this.sequentialCutoff);
+            // Let other threads take two of the products while this one computes the third
+            high.fork();
+            low.fork();
+            int[] middleProduct = middle.compute();
+            int[] lowProduct = low.join();
+            int[] highProduct = high.join();
+            return KaratsubaMultiplication.combine(highProduct, lowProduct, middleProduct, n, this.base);
+        } // method compute
+    } // class ProductTask
+
+    public static void main(String[] args) {
+        int[] x = { 1, 2, 3, 4 };
+        int[] y = { 5, 6, 7, 8 };
+        int[] z = multiply(x, y);
+        System.out.println(Arrays.toString(z));
+    } // method main
+} // class ParallelMultiplication
@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.Arrays; // for toString()
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+
+/**
+ * Products of many integers represented as arrays of single digits, most
+ * significant digit first, as in GradeSchoolMultiplication_Solution.
+ *
+ * Multiplying factors into a running product one at a time makes every step
+ * unbalanced: a huge running product times a small factor. The fast engines
+ * (Karatsuba, Toom, NTT) only help when both operands are large, so such a loop
+ * ends up doing quadratic work. A product tree pairs the factors up instead:
+ *
+ * a b c d e f g h
+ * \ / \ / \ / \ /
+ * ab  cd  ef  gh
+ *   \ /     \ /
+ *   abcd    efgh
+ *       \  /
+ *     abcdefgh
+ *
+ * At every level the two operands have about the same size, and most of the
+ * work is in the few large products near the root, where the fast engines
+ * shine. Each product goes through GradeSchoolMultiplication_Solution.multiply,
+ * which picks the engine for its size. The two halves of the tree do not
+ * depend on each other, so they can also be computed on different cores.
+ */
+public class ProductTree {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Ranges with this many factors or fewer are multiplied by a single thread */
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 64;
+
+    /**
+     * Multiplies all factors in a list, in balanced binary-tree order.
+     *
+     * @param factors arrays with the integers to multiply; not modified
+     * @param base    the number base of the system
+     * @return the product as an array of digits without leading zeros; [1] for
+     *         an empty list and [0] if any factor is 0
+     */
+    public static int[] multiplyAll(final List<int[]> factors, final int base) {
+        if (factors.isEmpty()) {
+            return new int[] { 1 };
+        }
+        if (factors.size() == 1) {
+            return single(factors.get(0));
+        }
+        return normalized(reduce(0, factors.size(), i -> DigitArithmetic.trimmed(factors.get(i)),
+                (left, right) -> multiplyPair(left, right, base)));
+    } // method multiplyAll
+
+    public static int[] multiplyAll(final List<int[]> factors) {
+        return multiplyAll(factors, DEFAULT_BASE);
+    } // method multiplyAll
+
+    /**
+     * Multiplies all factors in a list, in balanced binary-tree order, computing
+     * independent subtrees on the threads of a pool.
+     *
+     * @param factors          arrays with the integers to multiply; not modified
+     * @param base             the number base of the system
+     * @param pool             the pool whose threads perform the work
+     * @param sequentialCutoff subtrees with this many factors or fewer are
+     *                         computed by a single thread
+     * @return the product as an array of digits without leading zeros; [1] for
+     *         an empty list and [0] if any factor is 0
+     */
+    public static int[] multiplyAll(final List<int[]> factors, final int base, final ForkJoinPool pool,
+            final int sequentialCutoff) {
+        if (factors.isEmpty()) {
+            return new int[] { 1 };
+        }
+        if (factors.size() == 1) {
+            return single(factors.get(0));
+        }
+        return normalized(reduce(0, factors.size(), i -> DigitArithmetic.trimmed(factors.get(i)),
+                (left, right) -> multiplyPair(left, right, base), pool, sequentialCutoff));
+    } // method multiplyAll
+
+    /**
+     * Combines the leaves from index "from" (inclusive) to "to" (exclusive) in
+     * balanced binary-tree order: the product tree with any kind of node. Besides
+     * multiplyAll, binary splitting (see BinarySplitting) uses it for the series
+     * of a range of terms.
+     *
+     * @param from  first index, inclusive
+     * @param to    last index, exclusive; > from
+     * @param leaf  the value of one index
+     * @param merge combines the values of two neighbouring ranges, left first
+     * @return the value of the whole range
+     */
+    static <T> T reduce(final int from, final int to, final IntFunction<T> leaf, final BinaryOperator<T> merge) {
+        if (to - from == 1) {
+            return leaf.apply(from);
+        }
+        int middle = (from + to) >>> 1;
+        return merge.apply(reduce(from, middle, leaf, merge), reduce(middle, to, leaf, merge));
+    } // method reduce
+
+    /**
+     * Same as reduce(from, to, leaf, merge), with independent subtrees computed
+     * on the threads of a pool.
+     *
+     * @param sequentialCutoff subtrees with this many leaves or fewer are
+     *                         computed by a single thread
+     */
+    static <T> T reduce(final int from, final int to, final IntFunction<T> leaf, final BinaryOperator<T> merge,
+            final ForkJoinPool pool, final int sequentialCutoff) {
+        return pool.invoke(new SubtreeTask<>(from, to, leaf, merge, Math.max(1, sequentialCutoff)));
+    } // method reduce
+
+    /**
+     * One node of the tree: multiplies its two children through
+     * GradeSchoolMultiplication_Solution.multiply, which picks the engine
+     */
+    private static int[] multiplyPair(final int[] left, final int[] right, final int base) {
+        return DigitArithmetic.trimmed(GradeSchoolMultiplication_Solution.multiply(left, right, base));
+    } // method multiplyPair
+
+    /**
+     * The product of a one-factor list: a copy of the factor without leading
+     * zeros, never the caller's array, since trimmed returns its argument when
+     * there is nothing to trim
+     */
+    private static int[] single(final int[] factor) {
+        return normalized(DigitArithmetic.trimmed(factor).clone());
+    } // method single
+
+    /** Turns the empty array used for 0 inside the tree into [0] */
+    private static int[] normalized(final int[] product) {
+        return (product.length == 0) ? new int[1] : product;
+    } // method normalized
+
+    /** A subtree of the product tree as a fork/join task */
+    private static class SubtreeTask<T> extends RecursiveTask<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntFunction<T> leaf;
+        private final BinaryOperator<T> merge;
+        private final int sequentialCutoff;
+
+        SubtreeTask(final int from, final int to, final IntFunction<T> leaf, final BinaryOperator<T> merge,
+                final int sequentialCutoff) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.merge = merge;
+            this.sequentialCutoff = sequentialCutoff;
+        } // constructor
+
+        @Override
+        protected T compute() {
+            if (this.to - this.from <= this.sequentialCutoff) {
+                return reduce(this.from, this.to, this.leaf, this.merge);
+            }
+            int middle = (this.from + this.to) >>> 1;
+            SubtreeTask<T> left = new SubtreeTask<>(this.from, middle, this.leaf, this.merge, this.sequentialCutoff);
+            SubtreeTask<T> right = new SubtreeTask<>(middle, this.to, this.leaf, this.merge, this.sequentialCutoff);
+            // Let another thread take the left half while this one computes the right half
+            left.fork();
+            T rightValue = right.compute();
+            return this.merge.apply(left.join(), rightValue);
+        } // method compute
+    } // class SubtreeTask
+
+    public static void main(String[] args) {
+        // 20! as the product of 1, 2, ..., 20
+        List<int[]> factors = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            factors.add(EasyMultiplications.convertToArray(i));
+        }
+        System.out.println(Arrays.toString(multiplyAll(factors)));
+    } // method main
+} // class ProductTree
@@ -0,0 +1,289 @@
+import java.util.ArrayList;
+import java.util.Arrays; // for toString() and copyOfRange()
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion of very large integers between number bases: decimal text, arrays
+ * of single digits in any base (most significant first, as in
+ * GradeSchoolMultiplication_Solution), and binary limbs of 32 bits.
+ *
+ * EasyMultiplications.convertToArray and convertToScalar go through an int, so
+ * they only work for numbers below 2^31. The textbook method for larger numbers,
+ * Horner's rule (value = value * fromBase + next digit), takes n steps on a
+ * number that grows to n digits, i.e., n^2 work. That is hours for a
+ * million-digit number.
+ *
+ * We use divide and conquer instead. Split the digits in a high and a low part
+ * of k digits, convert both parts, and combine them in the new base:
+ *
+ * value = high * fromBase^k + low
+ *
+ * The combination costs one multiplication, and with the fast engines behind
+ * GradeSchoolMultiplication_Solution.multiply the whole conversion takes about
+ * log n times as long as one multiplication of n digits. The split points are
+ * powers of 2 times a small leaf size, so the same few powers fromBase^k are
+ * needed over and over; they are computed once per pair of bases and cached.
+ * The largest cached power has about half the digits of the largest number
+ * converted, so the cache keeps only the CACHED_BASE_PAIRS pairs of bases used
+ * last, and clearCache releases it after a large conversion.
+ *
+ * Limbs in base 10^9 (PackedNumber in base 10) need no conversion at all: use
+ * PackedNumber.fromDigits(fromDecimalString(text, 10), 10).
+ */
+public class RadixConversion {
+
+    /** Parts with this many digits or fewer are converted with Horner's rule */
+    private static final int LEAF_DIGITS = 32;
+
+    /** Four decimal digits per intermediate digit, 10^4 */
+    private static final int DECIMAL_GROUP_BASE = 10_000;
+
+    /** Decimal digits in one intermediate digit */
+    private static final int DECIMAL_GROUP_DIGITS = 4;
+
+    /** 15 bits per intermediate digit, so that base * base still fits in an int */
+    private static final int BINARY_GROUP_BASE = 1 << 15;
+
+    /** Bits in one intermediate digit */
+    private static final int BINARY_GROUP_BITS = 15;
+
+    /**
+     * Pairs of bases whose powers stay cached: enough for a round trip, e.g.,
+     * decimal text to base 2^15 digits and back
+     */
+    private static final int CACHED_BASE_PAIRS = 2;
+
+    /**
+     * Cached powers fromBase^(LEAF_DIGITS * 2^i), in toBase, by "fromBase:toBase",
+     * least recently used pair first
+     */
+    private static final Map<String, List<int[]>> POWERS = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Converts a number from one base to another.
+     *
+     * @param digits   single digits in fromBase, most significant first
+     * @param fromBase base of the input digits
+     * @param toBase   base of the output digits; toBase * toBase must fit in an int
+     * @return single digits in toBase, most significant first, without leading
+     *         zeros; the number 0 is [0]
+     */
+    public static int[] convert(final int[] digits, final int fromBase, final int toBase) {
+        if (fromBase == toBase) {
+            int[] same = DigitArithmetic.trimmed(digits);
+            return (same.length == 0) ? new int[1] : same.clone();
+        }
+        int[] result = convertPart(DigitArithmetic.trimmed(digits), fromBase, toBase, powers(fromBase, toBase));
+        return (result.length == 0) ? new int[1] : result;
+    } // method convert
+
+    /**
+     * Converts decimal text, such as "4077", into single digits of a base.
+     *
+     * @param text decimal digits only, most significant first
+     * @param base base of the output digits
+     * @return single digits in base, most significant first, without leading zeros
+     */
+    public static int[] fromDecimalString(final CharSequence text, final int base) {
+        // Group four decimal digits into each digit of base 10^4; no arithmetic
+        // between groups is needed, so this is quick
+        int groups = (text.length() + DECIMAL_GROUP_DIGITS - 1) / DECIMAL_GROUP_DIGITS;
+        int[] grouped = new int[groups];
+        int position = text.length();
+        for (int g = groups - 1; g >= 0; g--) {
+            int start = Math.max(0, position - DECIMAL_GROUP_DIGITS);
+            int value = 0;
+            for (int i = start; i < position; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw new NumberFormatException("Not a decimal digit: '" + c + "' at position " + i);
+                }
+                value = value * 10 + (c - '0');
+            }
+            grouped[g] = value;
+            position = start;
+        }
+        return convert(grouped, DECIMAL_GROUP_BASE, base);
+    } // method fromDecimalString
+
+    /**
+     * Converts single digits of a base into decimal text.
+     *
+     * @param digits single digits in base, most significant first
+     * @param base   base of the input digits
+     * @return decimal text without leading zeros; "0" for the number 0
+     */
+    public static String toDecimalString(final int[] digits, final int base) {
+        int[] grouped = convert(digits, base, DECIMAL_GROUP_BASE);
+        StringBuilder text = new StringBuilder(grouped.length * DECIMAL_GROUP_DIGITS);
+        // The first group has no leading zeros; all others are padded to four digits
+        text.append(grouped[0]);
+        for (int g = 1; g < grouped.length; g++) {
+            int value = grouped[g];
+            for (int scale = DECIMAL_GROUP_BASE / 10; scale > 0; scale /= 10) {
+                text.append((char) ('0' + value / scale % 10));
+            }
+        }
+        return text.toString();
+    } // method toDecimalString
+
+    /**
+     * Converts single digits of a base into binary limbs of 32 bits.
+     *
+     * @param digits single digits in base, most significant first
+     * @param base   base of the input digits
+     * @return unsigned 32-bit limbs, least significant first, without leading zero
+     *         limbs; the number 0 has no limbs
+     */
+    public static int[] toBinaryLimbs(final int[] digits, final int base) {
+        int[] chunks = DigitArithmetic.trimmed(convert(digits, base, BINARY_GROUP_BASE));
+        int[] limbs = new int[(chunks.length * BINARY_GROUP_BITS + 31) / 32];
+        // Chunk j (counted from the least significant end) occupies bits
+        // 15j .. 15j+14; it may straddle two limbs
+        for (int j = 0; j < chunks.length; j++) {
+            long chunk = chunks[chunks.length - 1 - j];
+            int bit = j * BINARY_GROUP_BITS;
+            limbs[bit / 32] |= (int) (chunk << (bit % 32));
+            if (bit % 32 + BINARY_GROUP_BITS > 32) {
+                limbs[bit / 32 + 1] |= (int) (chunk >>> (32 - bit % 32));
+            }
+        }
+        int length = limbs.length;
+        while (length > 0 && limbs[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(limbs, length);
+    } // method toBinaryLimbs
+
+    /**
+     * Converts binary limbs of 32 bits into single digits of a base.
+     *
+     * @param limbs unsigned 32-bit limbs, least significant first
+     * @param base  base of the output digits
+     * @return single digits in base, most significant first, without leading zeros
+     */
+    public static int[] fromBinaryLimbs(final int[] limbs, final int base) {
+        int chunkCount = (limbs.length * 32 + BINARY_GROUP_BITS - 1) / BINARY_GROUP_BITS;
+        int[] chunks = new int[chunkCount];
+        for (int j = 0; j < chunkCount; j++) {
+            int bit = j * BINARY_GROUP_BITS;
+            long value = Integer.toUnsignedLong(limbs[bit / 32]) >>> (bit % 32);
+            if (bit % 32 + BINARY_GROUP_BITS > 32 && bit / 32 + 1 < limbs.length) {
+                value |= Integer.toUnsignedLong(limbs[bit / 32 + 1]) << (32 - bit % 32);
+            }
+            chunks[chunkCount - 1 - j] = (int) (value & (BINARY_GROUP_BASE - 1));
+        }
+        return convert(chunks, BINARY_GROUP_BASE, base);
+    } // method fromBinaryLimbs
+
+    /**
+     * Recursive step: converts digits without leading zeros.
+     *
+     * @return digits in toBase without leading zeros; 0 is the empty array
+     */
+    private static int[] convertPart(final int[] digits, final int fromBase, final int toBase,
+            final List<int[]> powers) {
+        if (digits.length <= LEAF_DIGITS) {
+            return horner(digits, fromBase, toBase);
+        }
+        // Largest split size LEAF_DIGITS * 2^i below the number of digits
+        int level = 0;
+        while ((long) LEAF_DIGITS << (level + 1) < digits.length) {
+            level++;
+        }
+        int k = LEAF_DIGITS << level;
+        int[] high = DigitArithmetic.trimmed(Arrays.copyOfRange(digits, 0, digits.length - k));
+        int[] low = DigitArithmetic.trimmed(Arrays.copyOfRange(digits, digits.length - k, digits.length));
+        int[] highConverted = convertPart(high, fromBase, toBase, powers);
+        int[] lowConverted = convertPart(low, fromBase, toBase, powers);
+        if (highConverted.length == 0) {
+            return lowConverted;
+        }
+        // value = high * fromBase^k + low, all in toBase
+        int[] shifted = GradeSchoolMultiplication_Solution.multiply(highConverted, power(powers, level, toBase),
+                toBase);
+        return DigitArithmetic.trimmed(DigitArithmetic.add(shifted, lowConverted, toBase));
+    } // method convertPart
+
+    /** Horner's rule for short inputs: value = value * fromBase + digit */
+    private static int[] horner(final int[] digits, final int fromBase, final int toBase) {
+        // Enough output digits for any input of this length
+        int[] value = new int[digits.length * (ceilLog(fromBase, toBase)) + 1];
+        for (int digit : digits) {
+            long carry = digit;
+            for (int i = value.length - 1; i >= 0; i--) {
+                long product = (long) value[i] * fromBase + carry;
+                value[i] = (int) (product % toBase);
+                carry = product / toBase;
+            }
+        }
+        return DigitArithmetic.trimmed(value);
+    } // method horner
+
+    /**
+     * The power fromBase^(LEAF_DIGITS * 2^level) in toBase. Powers are computed
+     * on first use, each as the square of the one before.
+     */
+    private static int[] power(final List<int[]> powers, final int level, final int toBase) {
+        synchronized (powers) {
+            while (powers.size() <= level) {
+                int[] previous = powers.get(powers.size() - 1);
+                powers.add(DigitArithmetic.trimmed(GradeSchoolMultiplication_Solution.square(previous, toBase,
+                        MultiplicationEngine.fastest(previous.length, previous.length, toBase))));
+            }
+            return powers.get(level);
+        }
+    } // method power
+
+    /** The cache of powers for a pair of bases, started with fromBase^LEAF_DIGITS */
+    private static List<int[]> powers(final int fromBase, final int toBase) {
+        synchronized (POWERS) {
+            String key = fromBase + ":" + toBase;
+            List<int[]> powers = POWERS.get(key);
+            if (powers == null) {
+                powers = new ArrayList<>();
+                int[] leafPower = new int[LEAF_DIGITS + 1];
+                leafPower[0] = 1;
+                powers.add(horner(leafPower, fromBase, toBase));
+                POWERS.put(key, powers);
+                // Forget the pairs used longest ago
+                Iterator<String> keys = POWERS.keySet().iterator();
+                while (POWERS.size() > CACHED_BASE_PAIRS) {
+                    keys.next();
+                    keys.remove();
+                }
+            }
+            return powers;
+        }
+    } // method powers
+
+    /**
+     * Drops all cached powers. A conversion in progress keeps the powers it has
+     * already looked up; the next conversion computes them again.
+     */
+    public static void clearCache() {
+        synchronized (POWERS) {
+            POWERS.clear();
+        }
+    } // method clearCache
+
+    /** How many toBase digits one fromBase digit needs at most */
+    private static int ceilLog(final int fromBase, final int toBase) {
+        int count = 1;
+        long reach = toBase;
+        while (reach < fromBase) {
+            reach *= toBase;
+            count++;
+        }
+        return count;
+    } // method ceilLog
+
+    public static void main(String[] args) {
+        int[] binary = fromDecimalString("4077", 2);
+        System.out.println(Arrays.toString(binary));
+        System.out.println(toDecimalString(binary, 2));
+    } // method main
+} // class RadixConversion
@@ -0,0 +1,264 @@
+import java.util.Arrays; // for toString() and copyOfRange()
+
+/**
+ * Toom-Cook 3-way multiplication (Toom-3) of integers represented as arrays of
+ * single digits. The arrays follow the same contract as
+ * GradeSchoolMultiplication_Solution: most significant digit first, and the
+ * product comes back with x.length + y.length digits, minus a leading 0 if there
+ * is one.
+ *
+ * Karatsuba splits each number in two parts and needs three products of half
+ * size. Toom-3 splits each number in three parts of k digits,
+ *
+ * x = x2 * base^(2k) + x1 * base^k + x0
+ *
+ * and reads them as the polynomial p(t) = x2 t^2 + x1 t + x0, so that x = p(base^k).
+ * The product of two such polynomials has degree 4, and a polynomial of degree 4
+ * is fixed by its values at five points. We evaluate both polynomials at t = 0,
+ * 1, -1, -2 and infinity (meaning: the leading coefficient), multiply the five
+ * pairs of values -- five products of about a third of the size -- and recover
+ * the five coefficients of the product from them (interpolation). This brings
+ * the work down to about n^1.465 digit multiplications.
+ *
+ * Values at -1 and -2 can be negative, so inside the recursion numbers carry a
+ * sign. Interpolation divides by 2 and 3, and those divisions are always exact.
+ *
+ * Below a cutoff size, the method hands the operands to Karatsuba's method,
+ * which is faster for smaller numbers.
+ */
+public class ToomCookMultiplication {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** Shorter operand size (in digits) at or below which we use Karatsuba */
+    public static final int DEFAULT_CUTOFF = 400;
+
+    /**
+     * Smallest usable cutoff. The evaluated parts have up to three more digits
+     * than a third of the operand, so operands of 5 digits or fewer would not get
+     * any smaller.
+     */
+    private static final int MIN_CUTOFF = 5;
+
+    /**
+     * Multiplies two integers represented as arrays using Toom-Cook 3-way
+     * multiplication.
+     *
+     * @param x      one of the two arrays with the integers to multiply
+     * @param y      the other array with the integer to multiply
+     * @param base   the number base of the system
+     * @param cutoff when the shorter operand has this many digits or fewer, we use
+     *               Karatsuba's method; values below 5 are raised to 5
+     * @return the product of the two numbers, in the same form as
+     *         GradeSchoolMultiplication_Solution.multiply returns it
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base, int cutoff) {
+        // If one of the input arrays has 0 length, return [0] like the grade school method
+        if (x.length == 0 || y.length == 0) {
+            return new int[1];
+        }
+        cutoff = (cutoff >= MIN_CUTOFF) ? cutoff : MIN_CUTOFF;
+        int[] product = product(DigitArithmetic.trimmed(x), DigitArithmetic.trimmed(y), base, cutoff);
+        return DigitArithmetic.toProductShape(product, x.length, y.length);
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y, final int base) {
+        return multiply(x, y, base, DEFAULT_CUTOFF);
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y) {
+        return multiply(x, y, DEFAULT_BASE, DEFAULT_CUTOFF);
+    } // method multiply
+
+    /**
+     * Squares an integer represented as an array using Toom-3. Both operands are
+     * the same, so we evaluate the polynomial once and square the five values.
+     *
+     * @param x    the array with the integer to square
+     * @param base the number base of the system
+     * @return the square, in the same form as multiply(x, x, base) returns it
+     */
+    public static int[] square(final int[] x, final int base) {
+        if (x.length == 0) {
+            return new int[1];
+        }
+        int[] operand = DigitArithmetic.trimmed(x);
+        // Passing the same array twice tells product that it is a square
+        return DigitArithmetic.toProductShape(product(operand, operand, base, DEFAULT_CUTOFF), x.length, x.length);
+    } // method square
+
+    /**
+     * Recursive step of Toom-3. Operands and product have no leading zeros; the
+     * number 0 is the empty array. When x and y are the same array, the step
+     * squares: it evaluates once, and the five products are squares as well.
+     *
+     * @param x      first operand
+     * @param y      second operand
+     * @param base   number system base
+     * @param cutoff size at or below which we use Karatsuba's method
+     * @return x * y without leading zeros
+     */
+    private static int[] product(final int[] x, final int[] y, final int base, final int cutoff) {
+        if (x.length == 0 || y.length == 0) {
+            return new int[0];
+        }
+        boolean squaring = (x == y);
+        if (Math.min(x.length, y.length) <= cutoff) {
+            return DigitArithmetic.trimmed(squaring ? KaratsubaMultiplication.square(x, base)
+                    : KaratsubaMultiplication.multiply(x, y, base));
+        }
+        // Size of each of the three parts
+        int k = (Math.max(x.length, y.length) + 2) / 3;
+        // Split the operands: x = x2 * base^(2k) + x1 * base^k + x0
+        int[] x0 = part(x, 0, k), x1 = part(x, 1, k), x2 = part(x, 2, k);
+        // Evaluate both polynomials at 0, 1, -1, -2 and infinity
+        Signed[] px = evaluate(x0, x1, x2, base);
+        Signed[] py = px;
+        if (!squaring) {
+            int[] y0 = part(y, 0, k), y1 = part(y, 1, k), y2 = part(y, 2, k);
+            py = evaluate(y0, y1, y2, base);
+        }
+        // Five products of about a third of the size; when squaring, px[i] and py[i]
+        // are the same object, and so the recursion squares again
+        Signed r0 = Signed.multiply(px[0], py[0], base, cutoff);
+        Signed r1 = Signed.multiply(px[1], py[1], base, cutoff);
+        Signed rMinus1 = Signed.multiply(px[2], py[2], base, cutoff);
+        Signed rMinus2 = Signed.multiply(px[3], py[3], base, cutoff);
+        Signed rInfinity = Signed.multiply(px[4], py[4], base, cutoff);
+        // Interpolate the coefficients c0..c4 of the product polynomial
+        // (the sequence of steps follows M. Bodrato, 2007)
+        Signed c0 = r0;
+        Signed c4 = rInfinity;
+        Signed c3 = Signed.subtract(rMinus2, r1, base).dividedBy(3, base);
+        Signed c1 = Signed.subtract(r1, rMinus1, base).dividedBy(2, base);
+        Signed c2 = Signed.subtract(rMinus1, r0, base);
+        c3 = Signed.add(Signed.subtract(c2, c3, base).dividedBy(2, base), rInfinity.times(2, base), base);
+        c2 = Signed.subtract(Signed.add(c2, c1, base), c4, base);
+        c1 = Signed.subtract(c1, c3, base);
+        // Assemble c4 * base^(4k) + c3 * base^(3k) + ... + c0. All coefficients of
+        // the product polynomial are >= 0, so only magnitudes are needed here.
+        int[] result = new int[x.length + y.length];
+        DigitArithmetic.addShifted(result, c0.magnitude, 0, base);
+        DigitArithmetic.addShifted(result, c1.magnitude, k, base);
+        DigitArithmetic.addShifted(result, c2.magnitude, 2 * k, base);
+        DigitArithmetic.addShifted(result, c3.magnitude, 3 * k, base);
+        DigitArithmetic.addShifted(result, c4.magnitude, 4 * k, base);
+        return DigitArithmetic.trimmed(result);
+    } // method product
+
+    /**
+     * Evaluates p(t) = p2 t^2 + p1 t + p0 at t = 0, 1, -1, -2 and infinity.
+     *
+     * @return the five values, in that order
+     */
+    private static Signed[] evaluate(final int[] p0, final int[] p1, final int[] p2, final int base) {
+        Signed zero = new Signed(p0);
+        Signed one = new Signed(p1);
+        Signed two = new Signed(p2);
+        // p0 + p2 is used by both p(1) and p(-1)
+        Signed even = Signed.add(zero, two, base);
+        Signed atMinus1 = Signed.subtract(even, one, base);
+        // p(-2) = 2 * (p(-1) + p2) - p0 = 4 p2 - 2 p1 + p0
+        Signed atMinus2 = Signed.subtract(Signed.add(atMinus1, two, base).times(2, base), zero, base);
+        return new Signed[] { zero, Signed.add(even, one, base), atMinus1, atMinus2, two };
+    } // method evaluate
+
+    /**
+     * Extracts one of the three k-digit parts of a number. Part 0 is the last k
+     * digits, part 1 the k digits before them, and part 2 whatever is left.
+     *
+     * @return the part, without leading zeros
+     */
+    private static int[] part(final int[] x, final int index, final int k) {
+        int end = x.length - index * k;
+        int start = (index == 2) ? 0 : Math.max(0, end - k);
+        if (end <= 0) {
+            return new int[0];
+        }
+        return DigitArithmetic.trimmed(Arrays.copyOfRange(x, start, end));
+    } // method part
+
+    /**
+     * A signed number for the inside of the recursion: a sign (-1, 0, or 1) and a
+     * magnitude without leading zeros, most significant digit first.
+     */
+    private static class Signed {
+
+        final int sign;
+        final int[] magnitude;
+
+        /** Non-negative number from a magnitude without leading zeros */
+        Signed(final int[] magnitude) {
+            this((magnitude.length == 0) ? 0 : 1, magnitude);
+        } // constructor
+
+        Signed(final int sign, final int[] magnitude) {
+            this.sign = (magnitude.length == 0) ? 0 : sign;
+            this.magnitude = magnitude;
+        } // full constructor
+
+        static Signed add(final Signed a, final Signed b, final int base) {
+            if (a.sign == 0) {
+                return b;
+            }
+            if (b.sign == 0) {
+                return a;
+            }
+            // Same signs: add magnitudes and keep the sign
+            if (a.sign == b.sign) {
+                int[] sum = DigitArithmetic.add(a.magnitude, b.magnitude, base);
+                return new Signed(a.sign, DigitArithmetic.trimmed(sum));
+            }
+            // Different signs: subtract the smaller magnitude from the larger one
+            int comparison = DigitArithmetic.compare(a.magnitude, b.magnitude);
+            if (comparison == 0) {
+                return new Signed(new int[0]);
+            }
+            Signed larger = (comparison > 0) ? a : b;
+            Signed smaller = (comparison > 0) ? b : a;
+            int[] difference = Arrays.copyOf(larger.magnitude, larger.magnitude.length);
+            DigitArithmetic.subtractShifted(difference, smaller.magnitude, 0, base);
+            return new Signed(larger.sign, DigitArithmetic.trimmed(difference));
+        } // method add
+
+        static Signed subtract(final Signed a, final Signed b, final int base) {
+            return add(a, new Signed(-b.sign, b.magnitude), base);
+        } // method subtract
+
+        static Signed multiply(final Signed a, final Signed b, final int base, final int cutoff) {
+            return new Signed(a.sign * b.sign, product(a.magnitude, b.magnitude, base, cutoff));
+        } // method multiply
+
+        /** Multiplies by a small positive int factor */
+        Signed times(final int factor, final int base) {
+            int[] result = new int[this.magnitude.length + 1];
+            int carry = 0;
+            for (int i = this.magnitude.length - 1; i >= 0; i--) {
+                int value = this.magnitude[i] * factor + carry;
+                result[i + 1] = value % base;
+                carry = value / base;
+            }
+            result[0] = carry;
+            return new Signed(this.sign, DigitArithmetic.trimmed(result));
+        } // method times
+
+        /** Divides by a small positive int divisor that is known to divide exactly */
+        Signed dividedBy(final int divisor, final int base) {
+            int[] result = new int[this.magnitude.length];
+            int remainder = 0;
+            for (int i = 0; i < this.magnitude.length; i++) {
+                int value = remainder * base + this.magnitude[i];
+                result[i] = value / divisor;
+                remainder = value % divisor;
+            }
+            return new Signed(this.sign, DigitArithmetic.trimmed(result));
+        } // method dividedBy
+    } // class Signed
+
+    public static void main(String[] args) {
+        int[] x = { 1, 2, 3, 4 };
+        int[] y = { 5, 6, 7, 8 };
+        int[] z = multiply(x, y);
+        System.out.println(Arrays.toString(z));
+    } // method main
+} // class ToomCookMultiplication
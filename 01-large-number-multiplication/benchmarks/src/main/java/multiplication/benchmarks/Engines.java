@@ -0,0 +1,97 @@
+package multiplication.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+
+/**
+ * Bridge from the benchmarks to the multiplication classes. Those classes live
+ * in the unnamed (default) package, which Java code in a named package cannot
+ * import, and JMH does not accept benchmarks in the unnamed package. We look the
+ * entry points up once by name; calls through a static final MethodHandle are
+ * compiled as direct calls, so the bridge adds no measurable cost.
+ */
+final class Engines {
+
+    /** GradeSchoolMultiplication_Solution.multiply(int[], int[], int, MultiplicationEngine) */
+    private static final MethodHandle MULTIPLY;
+
+    /** GradeSchoolMultiplication_Solution.square(int[], int, MultiplicationEngine) */
+    private static final MethodHandle SQUARE;
+
+    /** The MultiplicationEngine enum class */
+    private static final Class<?> ENGINE_CLASS;
+
+    static {
+        try {
+            Class<?> solution = Class.forName("GradeSchoolMultiplication_Solution");
+            ENGINE_CLASS = Class.forName("MultiplicationEngine");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MULTIPLY = lookup
+                    .findStatic(solution, "multiply",
+                            MethodType.methodType(int[].class, int[].class, int[].class, int.class, ENGINE_CLASS))
+                    .asType(MethodType.methodType(int[].class, int[].class, int[].class, int.class, Object.class));
+            SQUARE = lookup
+                    .findStatic(solution, "square",
+                            MethodType.methodType(int[].class, int[].class, int.class, ENGINE_CLASS))
+                    .asType(MethodType.methodType(int[].class, int[].class, int.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    } // static initializer
+
+    /** Utility class -- no objects */
+    private Engines() {
+    } // private constructor
+
+    /**
+     * Finds a MultiplicationEngine constant by name.
+     *
+     * @param name e.g. "KARATSUBA"
+     * @return the enum constant, typed as Object
+     */
+    static Object engine(final String name) {
+        for (Object constant : ENGINE_CLASS.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(name)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("No such engine: " + name);
+    } // method engine
+
+    static int[] multiply(final int[] x, final int[] y, final int base, final Object engine) {
+        try {
+            return (int[]) MULTIPLY.invokeExact(x, y, base, engine);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    } // method multiply
+
+    static int[] square(final int[] x, final int base, final Object engine) {
+        try {
+            return (int[]) SQUARE.invokeExact(x, base, engine);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    } // method square
+
+    /**
+     * Random operand of the given size, with a non-zero leading digit. The seed is
+     * fixed so that every run measures the same numbers.
+     *
+     * @param digits number of digits
+     * @param base   number system base
+     * @param seed   random seed
+     * @return array of single digits, most significant first
+     */
+    static int[] operand(final int digits, final int base, final long seed) {
+        Random random = new Random(seed);
+        int[] x = new int[digits];
+        for (int i = 0; i < digits; i++) {
+            x[i] = random.nextInt(base);
+        }
+        x[0] = 1 + random.nextInt(base - 1);
+        return x;
+    } // method operand
+} // class Engines
@@ -0,0 +1,60 @@
+package multiplication.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time per multiplication for large operands, 10^5 to 10^7 digits. Only the
+ * transform engine finishes these sizes in reasonable time by default; other
+ * engines can be added on the command line, e.g. "-p engine=NTT,TOOM3".
+ *
+ * Run with "-prof gc" to also report the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "--add-modules=jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class LargeMultiplyBenchmark {
+
+    @Param({ "NTT" })
+    public String engine;
+
+    @Param({ "100000", "1000000", "10000000" })
+    public int digits;
+
+    @Param({ "BALANCED", "UNBALANCED" })
+    public String shape;
+
+    @Param({ "10", "46340" })
+    public int base;
+
+    private Object engineConstant;
+    private int[] x;
+    private int[] y;
+
+    @Setup
+    public void setUp() {
+        this.engineConstant = Engines.engine(this.engine);
+        int shorter = "BALANCED".equals(this.shape) ? this.digits : Math.max(1, this.digits / 100);
+        this.x = Engines.operand(this.digits, this.base, 1);
+        this.y = Engines.operand(shorter, this.base, 2);
+    } // method setUp
+
+    @Benchmark
+    public int[] multiply() {
+        return Engines.multiply(this.x, this.y, this.base, this.engineConstant);
+    } // method multiply
+} // class LargeMultiplyBenchmark
@@ -0,0 +1,61 @@
+package multiplication.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of every multiplication engine for small and medium operands, from
+ * 10 to 10^4 digits. BALANCED multiplies two operands of the given size;
+ * UNBALANCED multiplies it with an operand a hundred times shorter. Squares
+ * have no shape and are measured by SquareBenchmark.
+ *
+ * Run with "-prof gc" to also report the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules=jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class MultiplyBenchmark {
+
+    @Param({ "SCHOOLBOOK", "KARATSUBA", "TOOM3", "NTT", "PACKED", "PARALLEL" })
+    public String engine;
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int digits;
+
+    @Param({ "BALANCED", "UNBALANCED" })
+    public String shape;
+
+    @Param({ "10", "1000", "46340" })
+    public int base;
+
+    private Object engineConstant;
+    private int[] x;
+    private int[] y;
+
+    @Setup
+    public void setUp() {
+        this.engineConstant = Engines.engine(this.engine);
+        int shorter = "BALANCED".equals(this.shape) ? this.digits : Math.max(1, this.digits / 100);
+        this.x = Engines.operand(this.digits, this.base, 1);
+        this.y = Engines.operand(shorter, this.base, 2);
+    } // method setUp
+
+    @Benchmark
+    public int[] multiply() {
+        return Engines.multiply(this.x, this.y, this.base, this.engineConstant);
+    } // method multiply
+} // class MultiplyBenchmark
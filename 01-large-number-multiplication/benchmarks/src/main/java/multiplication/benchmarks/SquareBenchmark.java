@@ -0,0 +1,54 @@
+package multiplication.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of squaring with every multiplication engine, for the same sizes
+ * and bases as MultiplyBenchmark. A square has a single operand, so unlike
+ * there, there is no shape parameter.
+ *
+ * Run with "-prof gc" to also report the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules=jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class SquareBenchmark {
+
+    @Param({ "SCHOOLBOOK", "KARATSUBA", "TOOM3", "NTT", "PACKED", "PARALLEL" })
+    public String engine;
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int digits;
+
+    @Param({ "10", "1000", "46340" })
+    public int base;
+
+    private Object engineConstant;
+    private int[] x;
+
+    @Setup
+    public void setUp() {
+        this.engineConstant = Engines.engine(this.engine);
+        this.x = Engines.operand(this.digits, this.base, 1);
+    } // method setUp
+
+    @Benchmark
+    public int[] square() {
+        return Engines.square(this.x, this.base, this.engineConstant);
+    } // method square
+} // class SquareBenchmark
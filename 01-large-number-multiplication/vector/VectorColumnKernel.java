@@ -0,0 +1,58 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel for ColumnSumMultiplication, written with the incubating Vector
+ * API. For every digit x[i], it multiplies a whole vector of digits of y at once
+ * and adds the products into the matching vector of column sums.
+ *
+ * Digits are below 2^16, so their products fit in 32 bits without sign, and the
+ * multiplication runs on int lanes. The products are then widened to long
+ * lanes, keeping the low 32 bits as an unsigned value, and added to the column
+ * sums. The int vector has half the bits of the long vector, so both have the
+ * same number of lanes.
+ *
+ * This file needs the module jdk.incubator.vector, both to compile and to run:
+ *
+ * javac --add-modules jdk.incubator.vector *.java vector/*.java
+ * java --add-modules jdk.incubator.vector ...
+ *
+ * ColumnSumMultiplication loads the class by name and falls back to a scalar
+ * loop when either is missing.
+ */
+class VectorColumnKernel implements ColumnSumMultiplication.Kernel {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+
+    private static final long LOW_32_BITS = 0xFFFFFFFFL;
+
+    @Override
+    public void accumulate(final int[] x, final int[] y, final long[] columns, final int first, final int count) {
+        // Row i covers the columns i+1 .. i+y.length; only rows that reach into the
+        // block contribute
+        int firstRow = Math.max(0, first - y.length);
+        int lastRow = Math.min(x.length - 1, first + count - 2);
+        for (int i = firstRow; i <= lastRow; i++) {
+            int digit = x[i];
+            int shift = i + 1 - first;
+            int start = Math.max(0, -shift);
+            int end = Math.min(y.length, count - shift);
+            int j = start;
+            for (int bound = start + INTS.loopBound(end - start); j < bound; j += INTS.length()) {
+                IntVector products = IntVector.fromArray(INTS, y, j).mul(digit);
+                LongVector wide = ((LongVector) products.convertShape(VectorOperators.I2L, LONGS, 0))
+                        .and(LOW_32_BITS);
+                LongVector.fromArray(LONGS, columns, shift + j).add(wide).intoArray(columns, shift + j);
+            }
+            for (; j < end; j++) {
+                columns[shift + j] += (digit * y[j]) & LOW_32_BITS;
+            }
+        }
+    } // method accumulate
+} // class VectorColumnKernel